@@ -0,0 +1,67 @@
+package uk.ac.ed.inf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the card checks of {@link CardValidator} with the string and boxing based checks they replaced, over the
+ * same mix of valid and invalid card details as a day of orders. Run with -prof gc to compare allocation rates.
+ *
+ * @author s2107575
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CardValidationBenchmark {
+    private static final String ORDER_DATE = "2023-04-15";
+    private static final String[] NUMBERS = {"2221699792078220", "4485959141852684", "5196344137645476",
+            "448595914185268", "5485959141852684", "4485959141852684", "2720991435287467", "4a85959141852684"};
+    private static final String[] CVVS = {"922", "123", "12", "0a9", "456", "789", "000", "1234"};
+    private static final String[] EXPIRIES = {"04/28", "12/23", "03/23", "04/23", "13/24", "01/30", "4/25", "05/24"};
+
+    /**
+     * Checks every card with the old checks.
+     *
+     * @return Number of valid cards, consumed so that the checks are not eliminated.
+     */
+    @Benchmark
+    public int legacy() {
+        int valid = 0;
+        for (int i = 0; i < NUMBERS.length; i++) {
+            if (LegacyCardChecks.checkCardNumber(NUMBERS[i]) && LegacyCardChecks.checkCvv(CVVS[i])
+                    && LegacyCardChecks.checkExpiry(EXPIRIES[i], ORDER_DATE)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Checks every card with the allocation-free kernels.
+     *
+     * @return Number of valid cards, consumed so that the checks are not eliminated.
+     */
+    @Benchmark
+    public int kernels() {
+        int valid = 0;
+        for (int i = 0; i < NUMBERS.length; i++) {
+            if (CardValidator.isValidCardNumber(NUMBERS[i]) && CardValidator.isValidCvv(CVVS[i])
+                    && CardValidator.isValidExpiry(EXPIRIES[i], ORDER_DATE)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+}
@@ -0,0 +1,104 @@
+package uk.ac.ed.inf;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed data the benchmarks run on, loaded from the fixtures directory of the classpath instead of the REST server so
+ * that every run measures the same work. The Central Area, restaurants and NoFlyZones mirror those served by the REST
+ * server, and the orders are a day of orders with the same mix of valid and invalid orders as the fixture season.
+ *
+ * @author s2107575
+ */
+final class Fixtures {
+    static final LngLat APPLETON = new LngLat(-3.186874, 55.944494);
+    static final String DATE = "2023-01-15";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private Fixtures() {
+    }
+
+    /**
+     * Loads a fixture.
+     *
+     * @param name Name of the fixture file without its extension.
+     * @param type Class to deserialize the fixture into.
+     * @param <T>  Type of the fixture.
+     * @return The fixture.
+     */
+    static <T> T load(String name, Class<T> type) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name + ".json")) {
+            if (in == null) {
+                throw new IllegalStateException("Missing fixture " + name);
+            }
+            return MAPPER.readValue(in, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Restaurant[] restaurants() {
+        return load("restaurants", Restaurant[].class);
+    }
+
+    static Area[] noFlyZones() {
+        return load("noFlyZones", Area[].class);
+    }
+
+    static List<LngLat> centralArea() {
+        return Arrays.asList(load("centralArea", LngLat[].class));
+    }
+
+    static List<Order> orders() {
+        return Arrays.asList(load("orders", Order[].class));
+    }
+
+    /**
+     * Builds the map of the fixtures, setting the coordinates of the Central Area singleton on the way.
+     *
+     * @return The map.
+     */
+    static Map map() {
+        CentralArea.setCoords(load("centralArea", LngLat[].class));
+        try {
+            return new Map(restaurants(), noFlyZones(), CentralArea.getCentralAreaInstance("http://localhost"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records the flight of a drone making a round trip from Appleton Tower to every restaurant in turn, planned the
+     * same way as deliveries are.
+     *
+     * @param map Map of the fixtures.
+     * @return Recorder holding the flight.
+     */
+    static FlightRecorder flight(Map map) {
+        FlightRecorder recorder = new FlightRecorder(APPLETON);
+        double[] position = {APPLETON.lng(), APPLETON.lat()};
+        long tick = 0;
+        for (Restaurant restaurant : restaurants()) {
+            PathCache.Trip trip = PathCache.Trip.plan(map, APPLETON, restaurant.getLngLat());
+            int order = recorder.orderIndex(restaurant.getName());
+            List<Direction> moves = new ArrayList<>(trip.outbound());
+            moves.add(null);
+            moves.addAll(trip.inbound());
+            moves.add(null);
+            for (Direction direction : moves) {
+                LngLat.nextPosition(position[0], position[1], direction, position);
+                recorder.record(position[0], position[1], direction, tick++, order);
+            }
+        }
+        return recorder;
+    }
+}
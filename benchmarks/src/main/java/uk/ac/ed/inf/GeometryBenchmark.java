@@ -0,0 +1,138 @@
+package uk.ac.ed.inf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the geometry the drone runs on every move: choosing and checking moves, testing points against the Central
+ * Area, and stepping and measuring between positions. Each benchmark works through the same fixed sample of positions
+ * in and around the Central Area, paired with the restaurants as targets.
+ *
+ * @author s2107575
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeometryBenchmark {
+    private static final int SAMPLES = 1024;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private Map map;
+    private List<LngLat> centralArea;
+    private LngLat[] positions;
+    private LngLat[] targets;
+    private Direction[] directions;
+    private final InArea inArea = new InArea();
+
+    /**
+     * Builds the map and picks the sample positions, a quarter of them outside the Central Area.
+     */
+    @Setup
+    public void setUp() {
+        this.map = Fixtures.map();
+        this.centralArea = Fixtures.centralArea();
+        Restaurant[] restaurants = Fixtures.restaurants();
+        Random random = new Random(16);
+        this.positions = new LngLat[SAMPLES];
+        this.targets = new LngLat[SAMPLES];
+        this.directions = new Direction[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            double lng = -3.1945 + random.nextDouble() * 0.0122;
+            double lat = 55.9417 + random.nextDouble() * 0.0054;
+            this.positions[i] = new LngLat(lng, lat);
+            this.targets[i] = restaurants[i % restaurants.length].getLngLat();
+            this.directions[i] = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+        }
+    }
+
+    /**
+     * Greedy move towards a restaurant, trying directions until one is legal.
+     *
+     * @param blackhole Consumes the positions after the moves.
+     */
+    @Benchmark
+    public void findMove(Blackhole blackhole) {
+        for (int i = 0; i < SAMPLES; i++) {
+            blackhole.consume(new DronePos(this.positions[i]).findMove(this.map, this.targets[i]));
+        }
+    }
+
+    /**
+     * Legality check of a single move, as made for every direction tried by findMove and every neighbour expanded by
+     * A*.
+     *
+     * @param blackhole Consumes the results.
+     */
+    @Benchmark
+    public void isLegalMove(Blackhole blackhole) {
+        for (int i = 0; i < SAMPLES; i++) {
+            LngLat from = this.positions[i];
+            blackhole.consume(DronePos.isLegalMove(this.map, from, from.nextPosition(this.directions[i]), true));
+        }
+    }
+
+    /**
+     * Central Area containment with the original ray casting test.
+     *
+     * @param blackhole Consumes the results.
+     */
+    @Benchmark
+    public void inArea(Blackhole blackhole) {
+        for (int i = 0; i < SAMPLES; i++) {
+            blackhole.consume(this.inArea.inArea(this.centralArea, this.centralArea.size(), this.positions[i]));
+        }
+    }
+
+    /**
+     * Central Area containment with the prepared polygon used by the planners.
+     *
+     * @param blackhole Consumes the results.
+     */
+    @Benchmark
+    public void preparedContains(Blackhole blackhole) {
+        PreparedPolygon area = this.map.getCentralArea();
+        for (int i = 0; i < SAMPLES; i++) {
+            blackhole.consume(area.contains(this.positions[i].lng(), this.positions[i].lat()));
+        }
+    }
+
+    /**
+     * Stepping one move from a position.
+     *
+     * @param blackhole Consumes the new positions.
+     */
+    @Benchmark
+    public void nextPosition(Blackhole blackhole) {
+        for (int i = 0; i < SAMPLES; i++) {
+            blackhole.consume(this.positions[i].nextPosition(this.directions[i]));
+        }
+    }
+
+    /**
+     * Distance from a position to a restaurant.
+     *
+     * @param blackhole Consumes the distances.
+     */
+    @Benchmark
+    public void distanceTo(Blackhole blackhole) {
+        for (int i = 0; i < SAMPLES; i++) {
+            blackhole.consume(this.positions[i].distanceTo(this.targets[i]));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package uk.ac.ed.inf;
+
+import java.util.List;
+
+/**
+ * Copy of the card checks Order made before {@link CardValidator}, kept as the baseline the kernels are measured
+ * against. The Luhn loop is copied as it was, including its bugs, so that the comparison measures the old cost.
+ *
+ * @author s2107575
+ */
+final class LegacyCardChecks {
+    private LegacyCardChecks() {
+    }
+
+    static boolean allDigits(String numToCheck) {
+        List<Character> digits = List.of('0', '1', '2', '3', '4', '5', '6', '7', '8', '9');
+        for (int i = 0; i < numToCheck.length(); i++) {
+            if (!digits.contains(numToCheck.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean checkCardNumber(String creditCardNumber) {
+        if (creditCardNumber == null || creditCardNumber.length() != 16 || !allDigits(creditCardNumber)) {
+            return false;
+        } else if (!isMasterCardOrVisa(Character.getNumericValue(creditCardNumber.charAt(0)),
+                Integer.parseInt(creditCardNumber.substring(0, 2)),
+                Integer.parseInt(creditCardNumber.substring(0, 4)))) {
+            return false;
+        }
+        return checkCardByLuhn(creditCardNumber);
+    }
+
+    static boolean checkCvv(String cvv) {
+        return cvv.length() == 3 && allDigits(cvv);
+    }
+
+    static boolean checkExpiry(String creditCardExpiry, String orderDate) {
+        Integer month;
+        Integer year;
+        Integer orderYear = Integer.parseInt(orderDate.substring(2, 4));
+        Integer orderMonth = Integer.parseInt(orderDate.substring(5, 7));
+        boolean valid = false;
+        if (creditCardExpiry.contains("/")) {
+            String[] monYr = creditCardExpiry.split("/");
+            if (monYr.length == 2) {
+                String mon = monYr[0];
+                String yr = monYr[1];
+                if (mon.length() == 2 && yr.length() == 2) {
+                    month = Integer.parseInt(mon);
+                    year = Integer.parseInt(yr);
+                    if ((year == orderYear && month >= orderMonth) || (year > orderYear && month <= 12)) {
+                        valid = true;
+                    }
+                }
+            }
+        }
+        return valid;
+    }
+
+    private static boolean isMasterCardOrVisa(Integer first, Integer firstTwo, Integer firstFour) {
+        return (firstTwo >= 51 && firstTwo <= 55) || (firstFour >= 2221 && firstFour <= 2720) || (first == 4);
+    }
+
+    private static boolean checkCardByLuhn(String creditCardNumber) {
+        int nSum = 0;
+        boolean second = false;
+        for (int i = 15; i >= 0; i--) {
+            int d = creditCardNumber.charAt(i);
+            if (second) {
+                d = d * 2;
+                nSum += d / 10;
+                nSum += d % 10;
+                second = !second;
+            }
+        }
+        return ((nSum & 10) == 0);
+    }
+}
@@ -0,0 +1,84 @@
+package uk.ac.ed.inf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures checking a day of fixture orders: pricing them against the menus, checking their card details, and the
+ * full validation that combines both.
+ *
+ * @author s2107575
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderBenchmark {
+    private List<Order> orders;
+    private MenuIndex menuIndex;
+    private OrderValidator validator;
+
+    /**
+     * Loads the orders and indexes the menus of the restaurants.
+     */
+    @Setup
+    public void setUp() {
+        this.orders = Fixtures.orders();
+        this.menuIndex = new MenuIndex(Fixtures.restaurants());
+        this.validator = new OrderValidator(this.menuIndex);
+    }
+
+    /**
+     * Prices every order, including those with invalid combinations of pizzas.
+     *
+     * @param blackhole Consumes the costs and failures.
+     */
+    @Benchmark
+    public void getDeliveryCost(Blackhole blackhole) {
+        for (Order order : this.orders) {
+            try {
+                blackhole.consume(order.getDeliveryCost(this.menuIndex));
+            } catch (InvalidPizzaCombinationException e) {
+                blackhole.consume(e);
+            }
+        }
+    }
+
+    /**
+     * Checks the card number, cvv and expiry date of every order.
+     *
+     * @param blackhole Consumes the results.
+     */
+    @Benchmark
+    public void cardChecks(Blackhole blackhole) {
+        for (Order order : this.orders) {
+            blackhole.consume(order.hasValidCardNumber());
+            blackhole.consume(order.hasValidCvv());
+            blackhole.consume(order.hasValidExpiry());
+        }
+    }
+
+    /**
+     * Validates the day of orders as the planner does.
+     *
+     * @return The results.
+     */
+    @Benchmark
+    public List<ValidationResult> validateAll() {
+        return this.validator.validateAll(this.orders);
+    }
+}
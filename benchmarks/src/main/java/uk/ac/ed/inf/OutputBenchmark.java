@@ -0,0 +1,89 @@
+package uk.ac.ed.inf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing the result files of a day: the flightpath and drone GeoJson of a drone visiting every fixture
+ * restaurant and the deliveries of a day of fixture orders. The files are written to the working directory under the name of the fixture
+ * date, as the application writes them, and removed once the benchmark is done.
+ *
+ * @author s2107575
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OutputBenchmark {
+    private FlightRecorder flight;
+    private List<ValidationResult> results;
+
+    /**
+     * Records the flight and validates the orders to be written.
+     */
+    @Setup
+    public void setUp() {
+        Map map = Fixtures.map();
+        this.flight = Fixtures.flight(map);
+        this.results = new OrderValidator(Fixtures.restaurants()).validateAll(Fixtures.orders());
+    }
+
+    /**
+     * Removes the files written by the benchmarks.
+     *
+     * @throws IOException If a file cannot be removed.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Path.of("flightpath-" + Fixtures.DATE + ".json"));
+        Files.deleteIfExists(Path.of("deliveries-" + Fixtures.DATE + ".json"));
+        Files.deleteIfExists(Path.of("drone-" + Fixtures.DATE + ".geojson"));
+    }
+
+    /**
+     * Writes the flightpath of the drone.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Benchmark
+    public void writeFlightpath() throws IOException {
+        WriteFlightpath.writeFile(Fixtures.DATE, this.flight, 0);
+    }
+
+    /**
+     * Writes the deliveries of the day.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Benchmark
+    public void writeDeliveries() throws IOException {
+        WriteDeliveries.writeFile(Fixtures.DATE, this.results);
+    }
+
+    /**
+     * Writes the GeoJson of the flight of the drone.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Benchmark
+    public void writeDrone() throws IOException {
+        WriteDrone.writeDrone(Fixtures.DATE, List.of(this.flight));
+    }
+}
@@ -0,0 +1,93 @@
+package uk.ac.ed.inf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures planning the outbound leg from Appleton Tower to a restaurant with each {@link PathPlanner}, and the return
+ * leg with A* and with the {@link DistanceField}, on a map whose visibility graph and distance field are already built.
+ *
+ * @author s2107575
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlannerBenchmark {
+    /**
+     * Index of the restaurant of the fixtures to plan to, from the nearest to the furthest behind NoFlyZones.
+     */
+    @Param({"2", "0", "3", "1"})
+    public int restaurant;
+
+    private PathPlanner aStar;
+    private PathPlanner visibility;
+    private DistanceField field;
+    private LngLat target;
+
+    /**
+     * Builds the map, the planners and the distance field.
+     */
+    @Setup
+    public void setUp() {
+        Map map = Fixtures.map();
+        this.aStar = PathPlanner.Kind.ASTAR.create(map);
+        this.visibility = PathPlanner.Kind.VISIBILITY.create(map);
+        this.field = map.getDistanceField();
+        this.target = Fixtures.restaurants()[this.restaurant].getLngLat();
+    }
+
+    /**
+     * A* search over the move lattice.
+     *
+     * @return Moves of the leg.
+     */
+    @Benchmark
+    public List<Direction> aStar() {
+        return this.aStar.plan(Fixtures.APPLETON, this.target, false);
+    }
+
+    /**
+     * Dijkstra over the visibility graph, steered along with lattice moves.
+     *
+     * @return Moves of the leg.
+     */
+    @Benchmark
+    public List<Direction> visibilityGraph() {
+        return this.visibility.plan(Fixtures.APPLETON, this.target, false);
+    }
+
+    /**
+     * A* search over the move lattice back to Appleton Tower.
+     *
+     * @return Moves of the return leg.
+     */
+    @Benchmark
+    public List<Direction> aStarHome() {
+        return this.aStar.plan(this.target, Fixtures.APPLETON, true);
+    }
+
+    /**
+     * Following the distance field back to Appleton Tower.
+     *
+     * @return Moves of the return leg.
+     */
+    @Benchmark
+    public List<Direction> distanceFieldHome() {
+        return this.field.plan(this.target, Fixtures.APPLETON, true);
+    }
+}
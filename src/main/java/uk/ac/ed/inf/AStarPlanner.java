@@ -0,0 +1,145 @@
+package uk.ac.ed.inf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A* search over the move lattice defined by {@link LngLat#nextPosition(Direction)}.
+ * Every node can be expanded in the 16 {@link Direction}s, each move costs one unit of battery and the heuristic is the
+ * straight line distance to the target in moves, which never overestimates the number of moves left.
+ * Moves are checked with {@link DronePos#isLegalMove} so planned paths follow the same rules as the greedy drone.
+ *
+ * @author s2107575
+ */
+public class AStarPlanner implements PathPlanner {
+    /**
+     * Size of the cells used to decide that two lattice positions are the same node. Positions reached by different
+     * sequences of moves are never exactly equal, so they are merged when they fall in the same cell.
+     */
+    private static final double CELL_SIZE = LngLat.MOVE_DIST / 4;
+
+    /**
+     * Upper bound on expanded nodes so that a target that cannot be reached does not exhaust the search space.
+     */
+    private static final int MAX_EXPANSIONS = 200000;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final Map map;
+
+    /**
+     * Planner searching paths on the given map.
+     *
+     * @param map Map representing the PizzaDronz area of service and its elements.
+     */
+    public AStarPlanner(Map map) {
+        this.map = map;
+    }
+
+    /**
+     * Finds the shortest sequence of moves taking the drone from its position to within {@link LngLat#TOLERANCE} of
+     * the target.
+     *
+     * @param start    Position the drone starts from.
+     * @param target   Position the drone is flying to.
+     * @param onReturn True if the drone is returning from an order, so must not leave the Central Area once inside it.
+     * @return Directions of each move in order, or null if no path was found.
+     */
+    @Override
+    public List<Direction> plan(LngLat start, LngLat target, boolean onReturn) {
+        PriorityQueue<Node> open = new PriorityQueue<>(Comparator.comparingDouble((Node n) -> n.f)
+                .thenComparingDouble(n -> n.h));
+        LongHashSet closed = new LongHashSet();
+        open.add(new Node(start, null, null, 0, heuristic(start, target)));
+
+        int expansions = 0;
+        while (!open.isEmpty() && expansions < MAX_EXPANSIONS) {
+            Node current = open.poll();
+            if (current.position.closeTo(target)) {
+                return current.path();
+            }
+            double lng = current.position.lng();
+            double lat = current.position.lat();
+            if (!closed.add(key(lng, lat))) {
+                continue;
+            }
+            expansions++;
+
+            for (Direction d : DIRECTIONS) {
+                double nextLng = lng + d.dLng();
+                double nextLat = lat + d.dLat();
+                if (closed.contains(key(nextLng, nextLat))
+                        || !DronePos.isLegalMove(map, lng, lat, nextLng, nextLat, onReturn)) {
+                    continue;
+                }
+                LngLat next = new LngLat(nextLng, nextLat);
+                open.add(new Node(next, d, current, current.g + 1, heuristic(next, target)));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Estimates number of moves left between two positions.
+     *
+     * @param from Position to estimate from.
+     * @param to   Target position.
+     * @return Lower bound on number of moves needed to get close to target.
+     */
+    private static double heuristic(LngLat from, LngLat to) {
+        return Math.max(0, from.distanceTo(to) - LngLat.TOLERANCE) / LngLat.MOVE_DIST;
+    }
+
+    /**
+     * Computes the closed set key of a position from the cell it falls into. Positions on the move lattice are merged
+     * by cell rather than compared exactly: the 16 directions span eight rationally independent axes, so the lattice is
+     * dense and exact positions alone would never bound the search.
+     *
+     * @param lng Longitude of position to find key for.
+     * @param lat Latitude of position to find key for.
+     * @return Key of cell containing position.
+     */
+    private static long key(double lng, double lat) {
+        long lngCell = (long) Math.floor(lng / CELL_SIZE);
+        long latCell = (long) Math.floor(lat / CELL_SIZE);
+        return (lngCell << 32) ^ (latCell & 0xffffffffL);
+    }
+
+    /**
+     * Node of the search tree.
+     */
+    private static final class Node {
+        private final LngLat position;
+        private final Direction direction;
+        private final Node parent;
+        private final int g;
+        private final double h;
+        private final double f;
+
+        private Node(LngLat position, Direction direction, Node parent, int g, double h) {
+            this.position = position;
+            this.direction = direction;
+            this.parent = parent;
+            this.g = g;
+            this.h = h;
+            this.f = g + h;
+        }
+
+        /**
+         * Walks back up the tree to build the path to this node.
+         *
+         * @return Directions of the moves from the start to this node.
+         */
+        private List<Direction> path() {
+            List<Direction> moves = new ArrayList<>(this.g);
+            for (Node n = this; n.parent != null; n = n.parent) {
+                moves.add(n.direction);
+            }
+            Collections.reverse(moves);
+            return moves;
+        }
+    }
+}
@@ -2,14 +2,15 @@ package uk.ac.ed.inf;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.Clock;
+import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 /**
  * Currently used for testing please ignore
@@ -19,59 +20,174 @@ public class App {
 
     public static void main(String[] args) throws IOException, InvalidPizzaCombinationException, ParseException {
         String dateString = "";
-        Date date = null;
-        if (args.length == 1) {
+        LocalDate date = null;
+        int droneCount = 1;
+        String endpoint = "https://ilp-rest.azurewebsites.net";
+        Path snapshotDirectory = Path.of("rest-snapshots");
+        boolean offline = false;
+        boolean binaryFlightpath = false;
+        boolean prometheus = false;
+        TickSource tickSource = TickSource.monotonic();
+        boolean serve = args.length >= 1 && args[0].equals("serve");
+        int port = 8080;
+        PathPlanner.Kind pathPlanner = PathPlanner.Kind.ASTAR;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--drones=")) {
+                try {
+                    droneCount = Integer.parseInt(args[i].substring("--drones=".length()));
+                } catch (NumberFormatException e) {
+                    droneCount = 0;
+                }
+                if (droneCount < 1) {
+                    System.err.println("Invalid input: number of drones must be a positive whole number");
+                    System.exit(1);
+                }
+            } else if (args[i].startsWith("--endpoint=")) {
+                endpoint = args[i].substring("--endpoint=".length());
+            } else if (args[i].startsWith("--snapshots=")) {
+                snapshotDirectory = Path.of(args[i].substring("--snapshots=".length()));
+            } else if (args[i].equals("--offline")) {
+                offline = true;
+            } else if (args[i].equals("--binary")) {
+                binaryFlightpath = true;
+            } else if (args[i].equals("--prometheus")) {
+                prometheus = true;
+            } else if (args[i].equals("--simulated-ticks")) {
+                tickSource = TickSource.simulated(1);
+            } else if (args[i].startsWith("--planner=")) {
+                try {
+                    pathPlanner = PathPlanner.Kind.forName(args[i].substring("--planner=".length()));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Invalid input: " + e.getMessage());
+                    System.exit(1);
+                }
+            } else if (args[i].startsWith("--port=")) {
+                try {
+                    port = Integer.parseInt(args[i].substring("--port=".length()));
+                } catch (NumberFormatException e) {
+                    port = -1;
+                }
+                if (port < 0 || port > 65535) {
+                    System.err.println("Invalid input: port must be a whole number from 0 to 65535");
+                    System.exit(1);
+                }
+            } else {
+                System.err.println("Invalid input: unknown option " + args[i]);
+                System.exit(1);
+            }
+        }
+        if (serve) {
+            dateString = "serve";
+        } else if (args.length >= 1 && BatchPlanner.isRange(args[0])) {
+            dateString = args[0];
+        } else if (args.length >= 1) {
             dateString = args[0];
             try {
-                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-                dateFormat.setLenient(false);
-                date = dateFormat.parse(args[0]);
+                date = LocalDate.parse(args[0]);
             } catch (DateTimeParseException e) {
                 System.err.println("Invalid input: date entered must be valid and formatted as: YYYY-MM-DD");
                 System.exit(1);
             }
         } else {
-            System.err.println("Invalid input: please enter a date for orders in YYYY-MM-DD format");
+            System.err.println("Invalid input: please enter a date for orders in YYYY-MM-DD format, or a range of " +
+                    "dates as YYYY-MM-DD..YYYY-MM-DD, or serve to run the planning service on --port=N, optionally " +
+                    "followed by --drones=N to fly a fleet of N drones, --endpoint=URL to use another REST server, " +
+                    "--snapshots=DIR to keep REST responses in another directory, --offline to plan from those " +
+                    "responses alone, --binary to also write each flightpath in the compact binary format, " +
+                    "--prometheus to also write the metrics of the run in the Prometheus text format, " +
+                    "--simulated-ticks to record one tick per move instead of the time of each move and " +
+                    "--planner=visibility to plan trips around the NoFlyZones on a visibility graph instead of " +
+                    "with A*");
             System.exit(1);
         }
+        LocalDate[] range = null;
+        if (date == null && !serve) {
+            try {
+                range = BatchPlanner.parseRange(dateString);
+            } catch (DateTimeParseException e) {
+                System.err.println("Invalid input: dates of range must be valid and formatted as: " +
+                        "YYYY-MM-DD..YYYY-MM-DD");
+                System.exit(1);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Invalid input: " + e.getMessage());
+                System.exit(1);
+            }
+        }
 
 
 
-        String defaultEndpoint = "https://ilp-rest.azurewebsites.net";
-        CentralArea centralArea = CentralArea.getCentralAreaInstance(defaultEndpoint);
-        centralArea.retrieveCentralAreaCoords();
-        Restaurant[] restaurants = Restaurant.getRestaurantsFromRestServer(defaultEndpoint);
-        NoFlyZones noFlyZones = NoFlyZones.getNoFlyZonesInstance(defaultEndpoint);
-        Area[] zones = noFlyZones.getNoFlyZoneCoordinates();
+        Metrics.reset();
+        RestClient.useSnapshots(new SnapshotStore(snapshotDirectory, offline));
+        CentralArea centralArea = CentralArea.getCentralAreaInstance(endpoint);
+        NoFlyZones noFlyZones = NoFlyZones.getNoFlyZonesInstance(endpoint);
+        Orders orders = new Orders(endpoint);
+        var centralAreaLoaded = centralArea.retrieveCentralAreaCoordsAsync();
+        var restaurantsLoaded = Restaurant.getRestaurantsFromRestServerAsync(endpoint);
+        var zonesLoaded = noFlyZones.getNoFlyZoneCoordinatesAsync();
+        Restaurant[] restaurants = null;
+        Area[] zones = null;
+        try {
+            centralAreaLoaded.join();
+            restaurants = restaurantsLoaded.join();
+            zones = zonesLoaded.join();
+        } catch (CompletionException e) {
+            System.err.println("Could not retrieve data from REST server " + endpoint + ": " + e.getCause());
+            System.exit(2);
+        }
 
-        Orders orders = new Orders(defaultEndpoint);
-        List<Order> ordersList = orders.getOrdersDay(dateString, date);
         Map map = new Map(restaurants, zones,  centralArea);
-        Clock clock = Clock.systemDefaultZone();
-        Integer start = Math.round(clock.millis());
-        Drone drone = new Drone(map, ordersList, restaurants);
-        do {
-            drone.move();
+        PathCache pathCache = new PathCache(Path.of("path-cache"), pathPlanner);
+        DeliveryPlanner planner = new DeliveryPlanner(map, restaurants, pathCache, droneCount, binaryFlightpath,
+                tickSource);
+        if (serve) {
+            PlanningService service = new PlanningService(planner, orders);
+            InetSocketAddress address = null;
+            try {
+                address = service.start(new InetSocketAddress(port));
+            } catch (IOException e) {
+                System.err.println("Could not start planning service on port " + port + ": " + e.getMessage());
+                System.exit(2);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> service.stop(1)));
+            System.err.println("Planning service listening on http://localhost:" + address.getPort() +
+                    PlanningService.PLAN_PATH);
+        } else if (range != null) {
+            int failed = new BatchPlanner(orders, planner).run(range[0], range[1]);
+            writeMetrics(dateString, prometheus);
+            if (failed > 0) {
+                System.err.println(failed + " days could not be planned");
+                System.exit(1);
+            }
+        } else {
+            DeliveryPlanner.DayPlan plan = null;
+            try {
+                plan = planner.planAsync(orders, date, Runnable::run).join();
+            } catch (CompletionException e) {
+                System.err.println("Could not plan " + dateString + ": " + e.getCause());
+                System.exit(2);
+            }
+            planner.write(dateString, plan);
+            map.addDronePaths(plan.recorders());
+            Map.writeMap();
+            writeMetrics(dateString, prometheus);
         }
-        while (!drone.flightFinished && drone.getMovesRemaining() > 0);
-
-
-        var fp = drone.getFlightPath();
-        var mo = drone.getMoveOrderNos();
-        var ticks = drone.getTicks();
-        var dir = drone.getDirections();
-        var droneMap = map.droneMap(fp);
-
-        WriteDeliveries.writeFile(dateString, ordersList);
-        WriteFlightpath.writeFile(dateString, mo, fp, dir, ticks, start);
-        WriteDrone.writeDrone(dateString, droneMap);
-        Map.writeMap();
-
-
-
-
-
+    }
 
+    /**
+     * Writes the metrics of the run, reporting instead of failing the run if they cannot be written.
+     *
+     * @param dateString Date or range of dates of the run.
+     * @param prometheus True to also write the metrics in the Prometheus text format.
+     */
+    private static void writeMetrics(String dateString, boolean prometheus) {
+        try {
+            Metrics.writeReport(dateString);
+            if (prometheus) {
+                Metrics.writePrometheus(dateString);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write metrics of " + dateString + ": " + e.getMessage());
+        }
     }
 
 
@@ -0,0 +1,123 @@
+package uk.ac.ed.inf;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Plans every day of a date range in one run. The restaurants, NoFlyZones and Central Area are fetched once by the
+ * caller and shared through the {@link DeliveryPlanner}, while each day's orders are streamed concurrently by the
+ * asynchronous {@link RestClient} and planned and written in parallel on a pool sized to the processors as soon as
+ * they have all arrived. Each day's files are written as in a single day run, except the map with the flights drawn
+ * over the NoFlyZones, which holds a single day and is not written for a range.
+ *
+ * @author s2107575
+ */
+public class BatchPlanner {
+    /**
+     * Separator between the first and last day of a range, as in 2023-01-01..2023-05-31.
+     */
+    public static final String RANGE_SEPARATOR = "..";
+
+    private final Orders orders;
+    private final DeliveryPlanner planner;
+
+    /**
+     * Batch planner fetching orders from the given REST server.
+     *
+     * @param orders  Orders of the REST server.
+     * @param planner Planner of a single day.
+     */
+    public BatchPlanner(Orders orders, DeliveryPlanner planner) {
+        this.orders = orders;
+        this.planner = planner;
+    }
+
+    /**
+     * Checks if a program argument is a date range rather than a single date.
+     *
+     * @param arg Program argument.
+     * @return True if the argument contains {@link #RANGE_SEPARATOR}.
+     */
+    public static boolean isRange(String arg) {
+        return arg.contains(RANGE_SEPARATOR);
+    }
+
+    /**
+     * Parses a date range formatted as YYYY-MM-DD..YYYY-MM-DD, both ends included.
+     *
+     * @param range Date range to parse.
+     * @return First and last day of the range.
+     * @throws DateTimeParseException   If either end is not a valid date.
+     * @throws IllegalArgumentException If the range is empty or not served by the REST server.
+     */
+    public static LocalDate[] parseRange(String range) {
+        int split = range.indexOf(RANGE_SEPARATOR);
+        LocalDate first = LocalDate.parse(range.substring(0, split));
+        LocalDate last = LocalDate.parse(range.substring(split + RANGE_SEPARATOR.length()));
+        if (last.isBefore(first)) {
+            throw new IllegalArgumentException("last day of range is before its first day");
+        }
+        if (first.isBefore(Orders.FIRST_DAY) || last.isAfter(Orders.LAST_DAY)) {
+            throw new IllegalArgumentException("range must be between " + Orders.FIRST_DAY + " and " + Orders.LAST_DAY);
+        }
+        return new LocalDate[]{first, last};
+    }
+
+    /**
+     * Plans and writes the files of every day from first to last, both included. A day that fails is reported and does
+     * not stop the other days.
+     *
+     * @param first First day to plan.
+     * @param last  Last day to plan.
+     * @return Number of days that could not be planned.
+     */
+    public int run(LocalDate first, LocalDate last) {
+        List<LocalDate> days = first.datesUntil(last.plusDays(1)).toList();
+        ForkJoinPool planPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<CompletableFuture<Boolean>> results = new ArrayList<>(days.size());
+            for (LocalDate day : days) {
+                String date = day.toString();
+                results.add(this.planner.planAsync(this.orders, day, planPool)
+                        .thenApply(plan -> write(date, plan))
+                        .exceptionally(e -> {
+                            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                            System.err.println("Could not plan " + date + ": " + cause);
+                            return false;
+                        }));
+            }
+            int failed = 0;
+            for (CompletableFuture<Boolean> result : results) {
+                if (!result.join()) {
+                    failed++;
+                }
+            }
+            return failed;
+        } finally {
+            planPool.shutdown();
+        }
+    }
+
+    /**
+     * Writes the files of a planned day.
+     *
+     * @param date Date of the day as YYYY-MM-DD.
+     * @param plan Plan of the day.
+     * @return True once the files are written.
+     */
+    private boolean write(String date, DeliveryPlanner.DayPlan plan) {
+        try {
+            this.planner.write(date, plan);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package uk.ac.ed.inf;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Compact binary flightpath format, written by {@link WriteFlightpath#writeBinaryFile} and read by
+ * {@link FlightpathReader}. All values are big-endian and every section has a fixed size, so any move can be found
+ * from its index alone:
+ * <ul>
+ *     <li>Header of {@link #HEADER_SIZE} bytes: magic, version, flags, start tick, then the number of drones, moves,
+ *     keyframes, explicit positions and order numbers, and the keyframe interval.</li>
+ *     <li>Drone table: index of the drone's first move, its number of moves and its first keyframe.</li>
+ *     <li>Keyframes: the absolute position of each drone before its first move and every {@link #KEYFRAME_INTERVAL}
+ *     moves after.</li>
+ *     <li>Moves: ticks since the start as an int, order index as an int, direction ordinal (or
+ *     {@link FlightRecorder#HOVER}) and flags as a byte each.</li>
+ *     <li>Explicit positions, sorted by move: positions that are not the previous one plus the delta of the
+ *     direction of the move.</li>
+ *     <li>Order table: the order numbers the moves index into, as UTF-8 prefixed by their length.</li>
+ * </ul>
+ * Coordinates are delta encoded by the direction of each move: the position after a move is the position before it
+ * plus the delta of its {@link Direction}, computed exactly as the drone did, so the file restores every coordinate
+ * to the bit. Positions that do not follow from their move are kept whole in the explicit table.
+ *
+ * @author s2107575
+ */
+public final class BinaryFlightpath {
+    static final int MAGIC = 0x50444650;
+    static final short VERSION = 1;
+    static final short FLAG_DRONE_IDS = 1;
+    static final byte MOVE_EXPLICIT = 1;
+    static final int KEYFRAME_INTERVAL = 64;
+    static final int HEADER_SIZE = 40;
+    static final int DRONE_SIZE = 12;
+    static final int KEYFRAME_SIZE = 16;
+    static final int MOVE_SIZE = 10;
+    static final int EXPLICIT_SIZE = 20;
+
+    private BinaryFlightpath() {
+    }
+
+    /**
+     * Writes the flightpaths of one or more drones in the binary format.
+     *
+     * @param out         Stream to write to, left open.
+     * @param recorders   Flight recorder of each drone, the index being the drone id.
+     * @param start       Tick the calculation started at.
+     * @param withDroneId True if the JSON converted from the file gives each record the id of its drone.
+     * @throws IOException If the file cannot be written.
+     */
+    static void write(OutputStream out, List<FlightRecorder> recorders, long start, boolean withDroneId)
+            throws IOException {
+        List<String> orderNos = new ArrayList<>();
+        java.util.Map<String, Integer> orderIndexByNo = new HashMap<>();
+        int[][] orderIndices = new int[recorders.size()][];
+        int moves = 0;
+        int keyframes = 0;
+        int explicit = 0;
+        double[] next = new double[2];
+        for (int droneId = 0; droneId < recorders.size(); droneId++) {
+            FlightRecorder recorder = recorders.get(droneId);
+            List<String> table = recorder.getOrderTable();
+            orderIndices[droneId] = new int[table.size()];
+            for (int i = 0; i < table.size(); i++) {
+                Integer index = orderIndexByNo.putIfAbsent(table.get(i), orderNos.size());
+                if (index == null) {
+                    index = orderNos.size();
+                    orderNos.add(table.get(i));
+                }
+                orderIndices[droneId][i] = index;
+            }
+            for (int i = 0; i < recorder.size(); i++) {
+                if (isExplicit(recorder, i, next)) {
+                    explicit++;
+                }
+            }
+            moves += recorder.size();
+            keyframes += keyframes(recorder.size());
+        }
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeShort(withDroneId ? FLAG_DRONE_IDS : 0);
+        data.writeLong(start);
+        data.writeInt(recorders.size());
+        data.writeInt(moves);
+        data.writeInt(keyframes);
+        data.writeInt(explicit);
+        data.writeInt(orderNos.size());
+        data.writeInt(KEYFRAME_INTERVAL);
+
+        int firstMove = 0;
+        int firstKeyframe = 0;
+        for (FlightRecorder recorder : recorders) {
+            data.writeInt(firstMove);
+            data.writeInt(recorder.size());
+            data.writeInt(firstKeyframe);
+            firstMove += recorder.size();
+            firstKeyframe += keyframes(recorder.size());
+        }
+        for (FlightRecorder recorder : recorders) {
+            for (int position = 0; position <= recorder.size(); position += KEYFRAME_INTERVAL) {
+                data.writeDouble(recorder.lng(position));
+                data.writeDouble(recorder.lat(position));
+            }
+        }
+        for (int droneId = 0; droneId < recorders.size(); droneId++) {
+            FlightRecorder recorder = recorders.get(droneId);
+            for (int i = 0; i < recorder.size(); i++) {
+                int orderIndex = recorder.orderIndex(i);
+                data.writeInt(Math.toIntExact(recorder.tick(i) - start));
+                data.writeInt(orderIndex == FlightRecorder.NO_ORDER ? orderIndex : orderIndices[droneId][orderIndex]);
+                data.writeByte(recorder.directionOrdinal(i));
+                data.writeByte(isExplicit(recorder, i, next) ? MOVE_EXPLICIT : 0);
+            }
+        }
+        firstMove = 0;
+        for (FlightRecorder recorder : recorders) {
+            for (int i = 0; i < recorder.size(); i++) {
+                if (isExplicit(recorder, i, next)) {
+                    data.writeInt(firstMove + i);
+                    data.writeDouble(recorder.lng(i + 1));
+                    data.writeDouble(recorder.lat(i + 1));
+                }
+            }
+            firstMove += recorder.size();
+        }
+        for (String orderNo : orderNos) {
+            byte[] bytes = orderNo.getBytes(StandardCharsets.UTF_8);
+            data.writeInt(bytes.length);
+            data.write(bytes);
+        }
+        data.flush();
+    }
+
+    /**
+     * Gets the number of keyframes of a drone, one before its first move and one every {@link #KEYFRAME_INTERVAL}
+     * moves after.
+     *
+     * @param moves Number of moves of the drone.
+     * @return Number of keyframes.
+     */
+    static int keyframes(int moves) {
+        return moves / KEYFRAME_INTERVAL + 1;
+    }
+
+    /**
+     * Checks if the position after a move does not follow from the position before it and the direction of the move.
+     */
+    private static boolean isExplicit(FlightRecorder recorder, int move, double[] next) {
+        LngLat.nextPosition(recorder.lng(move), recorder.lat(move), recorder.direction(move), next);
+        return Double.doubleToLongBits(next[0]) != Double.doubleToLongBits(recorder.lng(move + 1))
+                || Double.doubleToLongBits(next[1]) != Double.doubleToLongBits(recorder.lat(move + 1));
+    }
+}
@@ -0,0 +1,116 @@
+package uk.ac.ed.inf;
+
+/**
+ * Payment card checks that work directly on the characters of the card details, without splitting, parsing or boxing,
+ * so checking an order allocates nothing. The card number is checked for its digits, its MasterCard or Visa prefix and
+ * its Luhn checksum in a single pass.
+ *
+ * @author s2107575
+ */
+public final class CardValidator {
+    private static final int CARD_NUMBER_LENGTH = 16;
+
+    private CardValidator() {
+    }
+
+    /**
+     * Checks that every character is a digit between 0 and 9.
+     *
+     * @param text Characters to check.
+     * @return True if all characters are digits, false otherwise.
+     */
+    public static boolean isAllDigits(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that a card number has 16 digits, starts with a MasterCard (51-55 or 2221-2720) or Visa (4) prefix and
+     * passes the Luhn checksum.
+     *
+     * @param number Card number to check.
+     * @return True if the card number is valid, false otherwise.
+     */
+    public static boolean isValidCardNumber(CharSequence number) {
+        if (number == null || number.length() != CARD_NUMBER_LENGTH) {
+            return false;
+        }
+        int prefix = 0;
+        int sum = 0;
+        for (int i = 0; i < CARD_NUMBER_LENGTH; i++) {
+            int digit = number.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            if (i < 4) {
+                prefix = prefix * 10 + digit;
+            }
+            // Counting from the check digit on the right, every second digit is doubled.
+            if ((i & 1) == 0) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        int firstTwo = prefix / 100;
+        boolean masterCardOrVisa = (firstTwo >= 51 && firstTwo <= 55) || (prefix >= 2221 && prefix <= 2720)
+                || prefix / 1000 == 4;
+        return masterCardOrVisa && sum % 10 == 0;
+    }
+
+    /**
+     * Checks that a cvv has exactly three digits.
+     *
+     * @param cvv Cvv to check.
+     * @return True if the cvv is valid, false otherwise.
+     */
+    public static boolean isValidCvv(CharSequence cvv) {
+        return cvv != null && cvv.length() == 3 && isAllDigits(cvv);
+    }
+
+    /**
+     * Checks that an expiry date formatted as MM/YY is a real month that is not before the month of the order.
+     *
+     * @param expiry    Expiry date of the card as MM/YY.
+     * @param orderDate Date of the order as YYYY-MM-DD.
+     * @return True if the card has not expired on the order date, false otherwise, including when either date is
+     * missing or too short.
+     */
+    public static boolean isValidExpiry(CharSequence expiry, CharSequence orderDate) {
+        if (expiry == null || expiry.length() != 5 || expiry.charAt(2) != '/'
+                || orderDate == null || orderDate.length() < 7) {
+            return false;
+        }
+        int month = twoDigits(expiry, 0);
+        int year = twoDigits(expiry, 3);
+        int orderYear = twoDigits(orderDate, 2);
+        int orderMonth = twoDigits(orderDate, 5);
+        if (month < 1 || month > 12 || year < 0 || orderYear < 0 || orderMonth < 0) {
+            return false;
+        }
+        return year > orderYear || (year == orderYear && month >= orderMonth);
+    }
+
+    /**
+     * Reads a two digit number.
+     *
+     * @param text   Characters to read from.
+     * @param offset Index of the first digit.
+     * @return The number, or -1 if either character is not a digit.
+     */
+    private static int twoDigits(CharSequence text, int offset) {
+        int tens = text.charAt(offset) - '0';
+        int units = text.charAt(offset + 1) - '0';
+        if (tens < 0 || tens > 9 || units < 0 || units > 9) {
+            return -1;
+        }
+        return tens * 10 + units;
+    }
+}
@@ -8,6 +8,7 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Singleton class representing University of Edinburgh Central Area
@@ -20,6 +21,7 @@ public final class CentralArea {
     private static CentralArea centralAreaInstance;
     private static List<LngLat> coords;
     private static List<Point> points = new ArrayList<>();
+    private static PreparedPolygon preparedArea;
     private URL baseURL;
 
     /**
@@ -52,7 +54,39 @@ public final class CentralArea {
 
     public void retrieveCentralAreaCoords() {
         LngLat[] myCords = new RestClient(baseURL).deserialize("/centralArea", LngLat[].class);
+        setCoords(myCords);
+    }
+
+    /**
+     * Starts retrieving the coordinates for the CentralArea object from the REST server without waiting for them.
+     *
+     * @return Future completed once the coordinates are set.
+     */
+    public CompletableFuture<Void> retrieveCentralAreaCoordsAsync() {
+        return new RestClient(baseURL).fetchAsync("/centralArea", LngLat[].class).thenAccept(CentralArea::setCoords);
+    }
+
+    /**
+     * Sets the coordinates of the Central Area, as retrieved from the REST server or loaded from a fixture.
+     *
+     * @param myCords Coordinates of the corners of the Central Area.
+     */
+    static synchronized void setCoords(LngLat[] myCords) {
         coords = Arrays.asList(myCords);
+        points = new ArrayList<>();
+        preparedArea = new PreparedPolygon(coords);
+    }
+
+    /**
+     * Gets the Central Area prepared for containment tests, built once when the coordinates are retrieved.
+     *
+     * @return Central Area as a PreparedPolygon.
+     */
+    public static PreparedPolygon getPreparedArea() {
+        if (preparedArea == null) {
+            preparedArea = new PreparedPolygon(centralAreaInstance.getCoords());
+        }
+        return preparedArea;
     }
 
     /**
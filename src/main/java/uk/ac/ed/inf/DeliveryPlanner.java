@@ -0,0 +1,195 @@
+package uk.ac.ed.inf;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Plans a day of deliveries on a configured map: validates the day's orders, flies one drone or a {@link Fleet}, and
+ * writes the deliveries, flightpath and drone files.
+ * The planner holds no state of its own between days, so one planner can plan many days at once.
+ *
+ * @author s2107575
+ */
+public class DeliveryPlanner {
+    private final Map map;
+    private final Restaurant[] restaurants;
+    private final OrderValidator validator;
+    private final PathCache pathCache;
+    private final int droneCount;
+    private final boolean binaryFlightpath;
+    private final TickSource tickSource;
+
+    /**
+     * Planner for the given map and restaurants.
+     *
+     * @param map         Map representing the PizzaDronz area of service and its elements.
+     * @param restaurants Restaurants participating in the service.
+     * @param pathCache   Cache of planned trips between Appleton Tower and the restaurants.
+     * @param droneCount  Number of drones flying each day.
+     */
+    public DeliveryPlanner(Map map, Restaurant[] restaurants, PathCache pathCache, int droneCount) {
+        this(map, restaurants, pathCache, droneCount, false);
+    }
+
+    /**
+     * Planner for the given map and restaurants that can also write each flightpath in the binary format.
+     *
+     * @param map              Map representing the PizzaDronz area of service and its elements.
+     * @param restaurants      Restaurants participating in the service.
+     * @param pathCache        Cache of planned trips between Appleton Tower and the restaurants.
+     * @param droneCount       Number of drones flying each day.
+     * @param binaryFlightpath True to write flightpath-{date}.bin next to each JSON flightpath.
+     */
+    public DeliveryPlanner(Map map, Restaurant[] restaurants, PathCache pathCache, int droneCount,
+                           boolean binaryFlightpath) {
+        this(map, restaurants, pathCache, droneCount, binaryFlightpath, TickSource.monotonic());
+    }
+
+    /**
+     * Planner for the given map and restaurants recording the moves of each day at the ticks of the given source.
+     * Each day forks the source, so a simulated source gives every day the same ticks whichever order they are
+     * planned in.
+     *
+     * @param map              Map representing the PizzaDronz area of service and its elements.
+     * @param restaurants      Restaurants participating in the service.
+     * @param pathCache        Cache of planned trips between Appleton Tower and the restaurants.
+     * @param droneCount       Number of drones flying each day.
+     * @param binaryFlightpath True to write flightpath-{date}.bin next to each JSON flightpath.
+     * @param tickSource       Source of the ticks the start of each day and every move are recorded at.
+     */
+    public DeliveryPlanner(Map map, Restaurant[] restaurants, PathCache pathCache, int droneCount,
+                           boolean binaryFlightpath, TickSource tickSource) {
+        this.map = map;
+        this.restaurants = restaurants;
+        this.validator = new OrderValidator(restaurants);
+        this.pathCache = pathCache;
+        this.droneCount = droneCount;
+        this.binaryFlightpath = binaryFlightpath;
+        this.tickSource = tickSource;
+    }
+
+    /**
+     * Validates a day's orders across every core and delivers the valid ones. The orders themselves are not changed.
+     *
+     * @param orders Orders placed on the day.
+     * @return The plan of the day.
+     */
+    public DayPlan plan(List<Order> orders) {
+        TickSource ticks = this.tickSource.fork();
+        long start = ticks.ticks();
+        long validating = System.nanoTime();
+        List<ValidationResult> results = this.validator.validateAll(orders);
+        Metrics.time(Metrics.Phase.VALIDATION, validating);
+        return fly(results, ticks, start);
+    }
+
+    /**
+     * Streams a day's orders from the REST server, validating each order as soon as it is read so that validation
+     * overlaps the transfer, then delivers the valid ones.
+     *
+     * @param orders   Orders of the REST server.
+     * @param day      Day to plan.
+     * @param executor Executor to fly the drones on once every order has been read.
+     * @return Future completed with the plan of the day.
+     */
+    public CompletableFuture<DayPlan> planAsync(Orders orders, LocalDate day, Executor executor) {
+        TickSource ticks = this.tickSource.fork();
+        long start = ticks.ticks();
+        List<ValidationResult> results = new ArrayList<>();
+        return orders.streamOrdersDay(day, order -> {
+                    long validating = System.nanoTime();
+                    results.add(this.validator.validate(order));
+                    Metrics.time(Metrics.Phase.VALIDATION, validating);
+                })
+                .thenApplyAsync(count -> fly(results, ticks, start), executor);
+    }
+
+    /**
+     * Delivers a day's valid orders with one drone or a fleet.
+     *
+     * @param results Result of validating each order placed on the day.
+     * @param ticks   Source of the day's ticks, forked for the drones.
+     * @param start   Tick the calculation of the day started at.
+     * @return The plan of the day, with the outcome of each delivered order set to Delivered.
+     */
+    private DayPlan fly(List<ValidationResult> results, TickSource ticks, long start) {
+        List<ValidationResult> validOrders = OrderValidator.valid(results);
+        List<Drone> drones;
+        List<FlightRecorder> recorders;
+        long routing = System.nanoTime();
+        if (this.droneCount == 1) {
+            Drone drone = Drone.forValidOrders(this.map, validOrders, this.restaurants, this.pathCache,
+                    ticks.fork());
+            long flying = System.nanoTime();
+            Metrics.time(Metrics.Phase.ROUTE_BUILDING, routing);
+            do {
+                drone.move();
+            }
+            while (!drone.flightFinished && drone.getMovesRemaining() > 0);
+            Metrics.time(Metrics.Phase.FLIGHT, flying);
+            drones = List.of(drone);
+            recorders = List.of(drone.getFlightRecorder());
+        } else {
+            Fleet fleet = new Fleet(this.map, validOrders, this.restaurants, this.pathCache, this.droneCount,
+                    ticks);
+            long flying = System.nanoTime();
+            Metrics.time(Metrics.Phase.ROUTE_BUILDING, routing);
+            fleet.fly();
+            Metrics.time(Metrics.Phase.FLIGHT, flying);
+            drones = fleet.getDrones();
+            recorders = fleet.getFlightRecorders();
+        }
+
+        Set<ValidationResult> delivered = new HashSet<>();
+        for (Drone drone : drones) {
+            delivered.addAll(drone.getDelivered());
+        }
+        List<ValidationResult> outcomes = new ArrayList<>(results.size());
+        for (ValidationResult result : results) {
+            outcomes.add(delivered.contains(result) ? result.withOutcome(OrderOutcome.Delivered) : result);
+        }
+        return new DayPlan(outcomes, recorders, start);
+    }
+
+    /**
+     * Writes the deliveries, flightpath and drone files of a day, and the binary flightpath if it is enabled.
+     *
+     * @param date Date of the day as YYYY-MM-DD, used in the file names.
+     * @param plan Plan of the day.
+     * @throws IOException If a file cannot be written.
+     */
+    public void write(String date, DayPlan plan) throws IOException {
+        long writing = System.nanoTime();
+        WriteDeliveries.writeFile(date, plan.results());
+        Metrics.time(Metrics.Phase.WRITE_DELIVERIES, writing);
+        writing = System.nanoTime();
+        if (plan.recorders().size() == 1) {
+            WriteFlightpath.writeFile(date, plan.recorders().get(0), plan.start());
+        } else {
+            WriteFlightpath.writeFile(date, plan.recorders(), plan.start());
+        }
+        if (this.binaryFlightpath) {
+            WriteFlightpath.writeBinaryFile(date, plan.recorders(), plan.start(), plan.recorders().size() > 1);
+        }
+        Metrics.time(Metrics.Phase.WRITE_FLIGHTPATH, writing);
+        writing = System.nanoTime();
+        WriteDrone.writeDrone(date, plan.recorders());
+        Metrics.time(Metrics.Phase.WRITE_DRONE, writing);
+    }
+
+    /**
+     * Record representing the outcome of planning a day.
+     *
+     * @param results   Result of each order of the day, in the order they were placed, with its final outcome.
+     * @param recorders Flight recorder of each drone, the index being the drone id.
+     * @param start     Tick the calculation of the day started at.
+     */
+    public record DayPlan(List<ValidationResult> results, List<FlightRecorder> recorders, long start) {
+    }
+}
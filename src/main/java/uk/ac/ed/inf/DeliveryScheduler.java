@@ -0,0 +1,78 @@
+package uk.ac.ed.inf;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Orders a day's valid orders so that the drone delivers as many as its battery allows.
+ * Every delivery is a round trip from Appleton Tower, so its cost in moves only depends on the restaurant: the moves of
+ * the planned trip from {@link PathCache} plus the hover at each end. Delivering the cheapest orders first fits the
+ * most deliveries into any battery budget.
+ *
+ * @author s2107575
+ */
+public class DeliveryScheduler {
+    /**
+     * Cost of a restaurant that no trip could be planned to.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final Map map;
+    private final PathCache pathCache;
+    private final LngLat home;
+
+    /**
+     * Scheduler for trips from the given home position.
+     *
+     * @param map       Map representing the PizzaDronz area of service and its elements.
+     * @param pathCache Cache of planned trips between home and the restaurants.
+     * @param home      Position every trip starts and ends at.
+     */
+    public DeliveryScheduler(Map map, PathCache pathCache, LngLat home) {
+        this.map = map;
+        this.pathCache = pathCache;
+        this.home = home;
+    }
+
+    /**
+     * Computes the number of moves needed to deliver an order from a restaurant and get back home.
+     *
+     * @param restaurant Restaurant the order is collected from.
+     * @return Number of moves of the round trip including both hovers, or {@link #UNREACHABLE}.
+     */
+    public int tripCost(Restaurant restaurant) {
+        var trip = this.pathCache.getTrip(this.map, this.home, restaurant.getLngLat());
+        return trip == null ? UNREACHABLE : trip.moves();
+    }
+
+    /**
+     * Orders valid orders by the cost of their round trip, cheapest first. Orders from the same restaurant keep the
+     * order they were placed in, and orders from restaurants that cannot be reached are left out.
+     *
+     * @param validOrders Results of the valid orders.
+     * @return Orders in the sequence they should be delivered.
+     */
+    public List<ValidationResult> schedule(List<ValidationResult> validOrders) {
+        java.util.Map<Restaurant, List<ValidationResult>> byRestaurant = new LinkedHashMap<>();
+        for (ValidationResult order : validOrders) {
+            byRestaurant.computeIfAbsent(order.supplier(), r -> new ArrayList<>()).add(order);
+        }
+
+        java.util.Map<Restaurant, Integer> costs = new LinkedHashMap<>();
+        for (Restaurant restaurant : byRestaurant.keySet()) {
+            costs.put(restaurant, tripCost(restaurant));
+        }
+        List<Restaurant> restaurants = new ArrayList<>(byRestaurant.keySet());
+        restaurants.sort(Comparator.comparing(costs::get));
+
+        List<ValidationResult> route = new ArrayList<>(validOrders.size());
+        for (Restaurant restaurant : restaurants) {
+            if (costs.get(restaurant) != UNREACHABLE) {
+                route.addAll(byRestaurant.get(restaurant));
+            }
+        }
+        return route;
+    }
+}
@@ -22,32 +22,45 @@ public enum Direction {
     ESE(337.5);
 
 
+    private static final Direction[] VALUES = values();
+
     private final Double angle;
+    private final double dLng;
+    private final double dLat;
 
 
     Direction(Double angle) {
         this.angle = angle;
+        this.dLng = Math.cos(Math.toRadians(angle)) * LngLat.MOVE_DIST;
+        this.dLat = Math.sin(Math.toRadians(angle)) * LngLat.MOVE_DIST;
     }
 
     /**
      * Method that normalizes given angle and returns its equivalent Direction representing compass direction.
      *
      * @param myAngle to normalize and find Direction equivalence for.
-     * @return Direction enum that is equivalent to given angle.
+     * @return Direction enum that is equivalent to given angle, or null if the angle is not a compass direction.
      */
     public static Direction getDirection(Double myAngle) {
-        Direction myDirection = null;
-        if (myAngle < 0) {
-            myAngle += 360;
-        } else if (myAngle > 360) {
-            myAngle -= 360;
+        double normalized = myAngle % 360;
+        if (normalized < 0) {
+            normalized += 360;
         }
-        for (Direction d : Direction.values()) {
-            if (d.getAngle() == myAngle) {
-                myDirection = d;
-            }
+        double steps = normalized / 22.5;
+        if (steps != Math.rint(steps)) {
+            return null;
         }
-        return myDirection;
+        return VALUES[(int) steps % VALUES.length];
+    }
+
+    /**
+     * Rotates the direction by a number of compass points, anticlockwise for positive steps.
+     *
+     * @param steps Number of 22.5 degree steps to rotate by.
+     * @return The rotated Direction.
+     */
+    public Direction rotate(int steps) {
+        return VALUES[Math.floorMod(this.ordinal() + steps, VALUES.length)];
     }
 
     /**
@@ -59,5 +72,25 @@ public enum Direction {
         return this.angle;
     }
 
+    /**
+     * Retrieves change in longitude of a move in this direction, precomputed from the angle and
+     * {@link LngLat#MOVE_DIST}.
+     *
+     * @return Change in longitude of one move.
+     */
+    public double dLng() {
+        return this.dLng;
+    }
+
+    /**
+     * Retrieves change in latitude of a move in this direction, precomputed from the angle and
+     * {@link LngLat#MOVE_DIST}.
+     *
+     * @return Change in latitude of one move.
+     */
+    public double dLat() {
+        return this.dLat;
+    }
+
 
 }
@@ -0,0 +1,312 @@
+package uk.ac.ed.inf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Number of moves from every reachable cell of a grid to home, flood filled once per {@link Map} from Appleton Tower.
+ * The grid covers the given positions, such as the Central Area, the NoFlyZones and the restaurants, plus a margin,
+ * with cells an eighth of a move wide. The fill runs backwards from the cells close to home, taking a cell one move
+ * further away whenever the move between its centre and the centre of a filled cell is legal under
+ * {@link DronePos#isLegalMove} for a drone on its return, so the field respects the NoFlyZones and never leads out of
+ * the Central Area. Checking from the centres keeps a cell straddling the edge of a NoFlyZone from opening its inside.
+ * Counts are held in a short per cell, so how many moves a position is from home is a single read, and a path home
+ * follows the neighbour with the fewest moves left. Counts are those of a drone flying from the centre of each cell,
+ * so a drone elsewhere in the cell may need a move more or less; {@link #pathHome} searches around the cells where
+ * that stops it.
+ *
+ * @author s2107575
+ */
+public final class DistanceField implements PathPlanner {
+    /**
+     * Moves of a cell from which home cannot be reached, or of a position outside the grid.
+     */
+    public static final int UNREACHABLE = -1;
+
+    private static final double CELL_SIZE = LngLat.MOVE_DIST / 8;
+    private static final double MARGIN = LngLat.MOVE_DIST * 20;
+
+    /**
+     * Cells the search from where following the field stops may expand for each move the field gives, so that a
+     * position the field is wrong about cannot exhaust the grid.
+     */
+    private static final int MAX_EXPANSIONS_PER_MOVE = 64;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final Map map;
+    private final LngLat home;
+    private final AStarPlanner fallback;
+    private final double minLng;
+    private final double minLat;
+    private final int cols;
+    private final int rows;
+    private final short[] moves;
+
+    /**
+     * Flood fills the field of a map.
+     *
+     * @param map    Map representing the PizzaDronz area of service and its elements.
+     * @param home   Position every path of the field ends close to.
+     * @param extent Positions the grid must cover, a margin of 20 moves is added around them.
+     */
+    public DistanceField(Map map, LngLat home, List<LngLat> extent) {
+        this.map = map;
+        this.home = home;
+        this.fallback = new AStarPlanner(map);
+        double lngLow = home.lng();
+        double lngHigh = home.lng();
+        double latLow = home.lat();
+        double latHigh = home.lat();
+        for (LngLat point : extent) {
+            lngLow = Math.min(lngLow, point.lng());
+            lngHigh = Math.max(lngHigh, point.lng());
+            latLow = Math.min(latLow, point.lat());
+            latHigh = Math.max(latHigh, point.lat());
+        }
+        this.minLng = lngLow - MARGIN;
+        this.minLat = latLow - MARGIN;
+        this.cols = (int) Math.ceil((lngHigh + MARGIN - this.minLng) / CELL_SIZE);
+        this.rows = (int) Math.ceil((latHigh + MARGIN - this.minLat) / CELL_SIZE);
+        this.moves = new short[this.cols * this.rows];
+        Arrays.fill(this.moves, (short) UNREACHABLE);
+        fill();
+    }
+
+    /**
+     * Fills the field breadth first from the cells whose centre is close to home.
+     */
+    private void fill() {
+        int[] queue = new int[this.moves.length];
+        int head = 0;
+        int tail = 0;
+        int homeCol = col(this.home.lng());
+        int homeRow = row(this.home.lat());
+        int reach = (int) Math.ceil(LngLat.TOLERANCE / CELL_SIZE) + 1;
+        for (int r = Math.max(0, homeRow - reach); r <= Math.min(this.rows - 1, homeRow + reach); r++) {
+            for (int c = Math.max(0, homeCol - reach); c <= Math.min(this.cols - 1, homeCol + reach); c++) {
+                if (Math.hypot(centreLng(c) - this.home.lng(), centreLat(r) - this.home.lat()) <= LngLat.TOLERANCE) {
+                    this.moves[r * this.cols + c] = 0;
+                    queue[tail++] = r * this.cols + c;
+                }
+            }
+        }
+        while (head < tail) {
+            int cell = queue[head++];
+            double lng = centreLng(cell % this.cols);
+            double lat = centreLat(cell / this.cols);
+            short next = (short) (this.moves[cell] + 1);
+            for (Direction d : DIRECTIONS) {
+                int from = cell(lng - d.dLng(), lat - d.dLat());
+                if (from >= 0 && this.moves[from] == UNREACHABLE && DronePos.isLegalMove(this.map,
+                        centreLng(from % this.cols), centreLat(from / this.cols), lng, lat, true)) {
+                    this.moves[from] = next;
+                    queue[tail++] = from;
+                }
+            }
+        }
+    }
+
+    private int col(double lng) {
+        return (int) Math.floor((lng - this.minLng) / CELL_SIZE);
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor((lat - this.minLat) / CELL_SIZE);
+    }
+
+    private double centreLng(int col) {
+        return this.minLng + (col + 0.5) * CELL_SIZE;
+    }
+
+    private double centreLat(int row) {
+        return this.minLat + (row + 0.5) * CELL_SIZE;
+    }
+
+    /**
+     * Gets the cell containing a position.
+     *
+     * @param lng Longitude of the position.
+     * @param lat Latitude of the position.
+     * @return Index of the cell, or -1 if the position is outside the grid.
+     */
+    private int cell(double lng, double lat) {
+        int c = col(lng);
+        int r = row(lat);
+        if (c < 0 || r < 0 || c >= this.cols || r >= this.rows) {
+            return -1;
+        }
+        return r * this.cols + c;
+    }
+
+    /**
+     * Gets the number of moves from a position to home for a drone on its return, not counting the hover at home.
+     * This is the count of the cell holding the position, so it guides the path home but is not a bound a battery
+     * check could rely on.
+     *
+     * @param lng Longitude of the position.
+     * @param lat Latitude of the position.
+     * @return Number of moves, or {@link #UNREACHABLE}.
+     */
+    public int movesHome(double lng, double lat) {
+        int cell = cell(lng, lat);
+        return cell < 0 ? UNREACHABLE : this.moves[cell];
+    }
+
+    /**
+     * Gets the legal move for a drone on its return leading to the neighbour with the fewest moves left, the one
+     * ending closest to home breaking ties.
+     *
+     * @param lng Longitude of the drone.
+     * @param lat Latitude of the drone.
+     * @return Direction of the move, or null if no legal move leads to a filled cell.
+     */
+    public Direction nextMove(double lng, double lat) {
+        Direction best = null;
+        int bestMoves = Integer.MAX_VALUE;
+        double bestDistance = Double.MAX_VALUE;
+        for (Direction d : DIRECTIONS) {
+            double toLng = lng + d.dLng();
+            double toLat = lat + d.dLat();
+            int left = movesHome(toLng, toLat);
+            if (left == UNREACHABLE || left > bestMoves) {
+                continue;
+            }
+            double distance = Math.hypot(toLng - this.home.lng(), toLat - this.home.lat());
+            if ((left < bestMoves || distance < bestDistance)
+                    && DronePos.isLegalMove(this.map, lng, lat, toLng, toLat, true)) {
+                best = d;
+                bestMoves = left;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Plans a leg with the field when the leg is a return home, and with {@link AStarPlanner} otherwise or if the
+     * field does not lead home from the start.
+     *
+     * @param start    Position the drone starts from.
+     * @param target   Position the drone is flying to.
+     * @param onReturn True if the drone is returning from an order.
+     * @return Directions of each move in order, or null if no path was found.
+     */
+    @Override
+    public List<Direction> plan(LngLat start, LngLat target, boolean onReturn) {
+        List<Direction> path = onReturn && target.equals(this.home) ? pathHome(start) : null;
+        return path != null ? path : this.fallback.plan(start, target, onReturn);
+    }
+
+    /**
+     * Follows the field from a position until close to home. Each move goes to the neighbour with the fewest moves
+     * left as long as that is fewer than where the drone is. A drone off the centre of its cell can find no such
+     * neighbour, so from there the rest of the path is searched for best first, with the field as the estimate of the
+     * moves left.
+     *
+     * @param start Position of the drone.
+     * @return Directions of each move, or null if the field does not lead home from the position.
+     */
+    public List<Direction> pathHome(LngLat start) {
+        double lng = start.lng();
+        double lat = start.lat();
+        int left = movesHome(lng, lat);
+        if (left == UNREACHABLE) {
+            return null;
+        }
+        List<Direction> path = new ArrayList<>(left + 1);
+        while (!new LngLat(lng, lat).closeTo(this.home)) {
+            Direction d = nextMove(lng, lat);
+            int next = d == null ? UNREACHABLE : movesHome(lng + d.dLng(), lat + d.dLat());
+            if (next == UNREACHABLE || next >= left) {
+                List<Direction> rest = search(lng, lat, left);
+                if (rest == null) {
+                    return null;
+                }
+                path.addAll(rest);
+                return path;
+            }
+            path.add(d);
+            lng += d.dLng();
+            lat += d.dLat();
+            left = next;
+        }
+        return path;
+    }
+
+    /**
+     * Searches best first for the moves home from a position, ordering positions by the moves flown plus the moves
+     * the field gives for their cell. Positions in a cell already expanded are skipped.
+     *
+     * @param lng  Longitude of the drone.
+     * @param lat  Latitude of the drone.
+     * @param left Moves the field gives for the position of the drone.
+     * @return Directions of each move, or null if home was not reached within a bounded number of expansions.
+     */
+    private List<Direction> search(double lng, double lat, int left) {
+        PriorityQueue<Node> open = new PriorityQueue<>(Comparator.comparingInt((Node n) -> n.g + n.h)
+                .thenComparingInt(n -> n.h));
+        LongHashSet closed = new LongHashSet();
+        open.add(new Node(lng, lat, null, null, 0, left));
+        int budget = (left + 1) * MAX_EXPANSIONS_PER_MOVE;
+        while (!open.isEmpty() && budget > 0) {
+            Node current = open.poll();
+            if (new LngLat(current.lng, current.lat).closeTo(this.home)) {
+                return current.path();
+            }
+            if (!closed.add(cell(current.lng, current.lat))) {
+                continue;
+            }
+            budget--;
+            for (Direction d : DIRECTIONS) {
+                double toLng = current.lng + d.dLng();
+                double toLat = current.lat + d.dLat();
+                int cell = cell(toLng, toLat);
+                if (cell < 0 || this.moves[cell] == UNREACHABLE || closed.contains(cell)
+                        || !DronePos.isLegalMove(this.map, current.lng, current.lat, toLng, toLat, true)) {
+                    continue;
+                }
+                open.add(new Node(toLng, toLat, d, current, current.g + 1, this.moves[cell]));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Node of the search from where following the field stops.
+     */
+    private static final class Node {
+        private final double lng;
+        private final double lat;
+        private final Direction direction;
+        private final Node parent;
+        private final int g;
+        private final int h;
+
+        private Node(double lng, double lat, Direction direction, Node parent, int g, int h) {
+            this.lng = lng;
+            this.lat = lat;
+            this.direction = direction;
+            this.parent = parent;
+            this.g = g;
+            this.h = h;
+        }
+
+        /**
+         * Walks back up the search to build the path to this node.
+         *
+         * @return Directions of the moves from the start of the search to this node.
+         */
+        private List<Direction> path() {
+            List<Direction> moves = new ArrayList<>(this.g);
+            for (Node n = this; n.parent != null; n = n.parent) {
+                moves.add(n.direction);
+            }
+            Collections.reverse(moves);
+            return moves;
+        }
+    }
+}
@@ -2,12 +2,12 @@ package uk.ac.ed.inf;
 
 import com.mapbox.geojson.Point;
 
-import java.time.Clock;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Class representing the pizza delivery drone.
@@ -15,32 +15,34 @@ import java.util.stream.Collectors;
  * @author s2107575
  */
 public class Drone {
+    /**
+     * Number of moves a drone can make on a full battery.
+     */
+    public static final int BATTERY_MOVES = 2000;
     private final LngLat APPLETON_COORDS = new LngLat(-3.186874, 55.944494);
     public boolean flightFinished;
     private Integer movesRemaining;
     private LngLat currentLocation;
 
     private Map map;
-    private List<Order> ordersCompleted;
+    private List<ValidationResult> ordersCompleted;
 
-    private List<Order> allOrders;
-    private List<Order> validOrders;
-    private List<Point> flightPath;
+    private List<ValidationResult> validOrders;
+    private FlightRecorder recorder;
 
-    private List<Order> orderRoute;
-    private List<Integer> ticks;
+    private List<ValidationResult> orderRoute;
     private Restaurant[] restaurants;
 
 
-    private List<String> directions;
-    private List<String> moveOrderNos;
-
-
     private int orderCounter;
     private DronePos dronePos;
-    private boolean finalReturn;
 
-    private LngLat nextPos;
+    private ValidationResult targetOrder;
+
+    private PathCache pathCache;
+    private TickSource tickSource;
+    private Deque<Direction> plannedPath;
+    private List<Direction> pendingInbound;
 
 
     /**
@@ -50,76 +52,185 @@ public class Drone {
      * @param orders Orders for given day to find route for.
      */
     public Drone(Map map, List<Order> orders, Restaurant[] restaurant) {
+        this(map, orders, restaurant, new PathCache());
+    }
+
+    /**
+     * Drone object that drives its movements and all its movement data, replaying trips from a shared cache.
+     *
+     * @param map       Map representing the PizzaDronz area of service and its elements.
+     * @param orders    Orders for given day to find route for.
+     * @param pathCache Cache of planned trips between Appleton Tower and the restaurants.
+     */
+    public Drone(Map map, List<Order> orders, Restaurant[] restaurant, PathCache pathCache) {
+        this(map, restaurant, pathCache, TickSource.monotonic());
+        this.setValidOrders(OrderValidator.valid(validateAndApply(orders, restaurant)));
+    }
+
+    /**
+     * Drone object with no orders yet, used by the public constructors and {@link #forValidOrders}.
+     *
+     * @param map        Map representing the PizzaDronz area of service and its elements.
+     * @param restaurant Restaurants participating in the service.
+     * @param pathCache  Cache of planned trips between Appleton Tower and the restaurants.
+     * @param tickSource Source of the ticks each move is recorded at.
+     */
+    private Drone(Map map, Restaurant[] restaurant, PathCache pathCache, TickSource tickSource) {
 
         this.map = map;
+        this.tickSource = tickSource;
         this.currentLocation = APPLETON_COORDS;
         this.dronePos = new DronePos(this.currentLocation);
-        this.flightPath = new ArrayList<>();
-        this.flightPath.add(this.currentLocation.asPoint());
+        this.pathCache = pathCache;
+        this.plannedPath = new ArrayDeque<>();
+        this.recorder = new FlightRecorder(this.currentLocation);
         this.flightFinished = false;
-
-
-        this.directions = new ArrayList<>();
-        this.directions.add(dronePos.getDirection().getAngle().toString());
-
-
         this.restaurants = restaurant;
-        this.allOrders = orders;
-        this.validOrders = allValidOrders();
         this.ordersCompleted = new ArrayList<>();
+        this.orderCounter = 0;
+        this.targetOrder = null;
+        this.movesRemaining = BATTERY_MOVES;
 
+    }
 
-        this.orderRoute = getRoute();
-        this.ticks = new ArrayList<>();
-        this.moveOrderNos = new ArrayList<>();
-        this.finalReturn = false;
-
+    /**
+     * Creates a drone for orders that have already been validated, such as one of the drones of a {@link Fleet}
+     * sharing a single validation of the day's orders.
+     *
+     * @param map         Map representing the PizzaDronz area of service and its elements.
+     * @param validOrders Results of the valid orders for the drone to deliver.
+     * @param restaurant  Restaurants participating in the service.
+     * @param pathCache   Cache of planned trips between Appleton Tower and the restaurants.
+     * @return Drone ready to deliver the orders.
+     */
+    public static Drone forValidOrders(Map map, List<ValidationResult> validOrders, Restaurant[] restaurant,
+                                       PathCache pathCache) {
+        return forValidOrders(map, validOrders, restaurant, pathCache, TickSource.monotonic());
+    }
 
-        this.orderCounter = 0;
-        this.nextPos = orderRoute.get(0).getOrderRestaurant().getLngLat();
-        this.moveOrderNos.add(orderRoute.get(0).getOrderNo());
-        this.ticks.add(Math.round(Clock.systemDefaultZone().millis()));
+    /**
+     * Creates a drone for orders that have already been validated, recording its moves at the ticks of the given
+     * source.
+     *
+     * @param map         Map representing the PizzaDronz area of service and its elements.
+     * @param validOrders Results of the valid orders for the drone to deliver.
+     * @param restaurant  Restaurants participating in the service.
+     * @param pathCache   Cache of planned trips between Appleton Tower and the restaurants.
+     * @param tickSource  Source of the ticks each move is recorded at, read only by this drone.
+     * @return Drone ready to deliver the orders.
+     */
+    public static Drone forValidOrders(Map map, List<ValidationResult> validOrders, Restaurant[] restaurant,
+                                       PathCache pathCache, TickSource tickSource) {
+        Drone drone = new Drone(map, restaurant, pathCache, tickSource);
+        drone.setValidOrders(validOrders);
+        return drone;
+    }
 
+    /**
+     * Sets the valid orders of the drone and computes its route.
+     *
+     * @param validOrders Valid orders for the drone to deliver.
+     */
+    private void setValidOrders(List<ValidationResult> validOrders) {
+        this.validOrders = validOrders;
+        this.orderRoute = getRoute();
+    }
 
-        this.movesRemaining = 2000;
+    /**
+     * Adds orders that arrived after the drone's route was computed, without re-flying the day.
+     * The orders of the route the drone has not started yet are scheduled again together with the new ones, cheapest
+     * round trip first, while the trips already flown or started, the drone's position and direction and its battery
+     * stay as they are. A drone whose flight had finished resumes from Appleton Tower if any of the new orders can be
+     * reached. Must be called from the thread flying the drone, between two moves.
+     *
+     * @param results Results of validating the new orders. Invalid orders and orders the drone already has are
+     *                ignored.
+     * @return Number of new orders added to the route.
+     */
+    public int addOrders(List<ValidationResult> results) {
+        Set<ValidationResult> known = new HashSet<>(this.validOrders);
+        List<ValidationResult> added = new ArrayList<>();
+        for (ValidationResult result : OrderValidator.valid(results)) {
+            if (known.add(result)) {
+                added.add(result);
+            }
+        }
+        if (added.isEmpty()) {
+            return 0;
+        }
+        List<ValidationResult> allValid = new ArrayList<>(this.validOrders);
+        allValid.addAll(added);
+        this.validOrders = allValid;
+
+        List<ValidationResult> remaining = new ArrayList<>(this.orderRoute.subList(this.orderCounter,
+                this.orderRoute.size()));
+        remaining.addAll(added);
+        List<ValidationResult> rescheduled = new DeliveryScheduler(this.map, this.pathCache, APPLETON_COORDS)
+                .schedule(remaining);
+        List<ValidationResult> route = new ArrayList<>(this.orderCounter + rescheduled.size());
+        route.addAll(this.orderRoute.subList(0, this.orderCounter));
+        route.addAll(rescheduled);
+        int routed = route.size() - this.orderRoute.size();
+        this.orderRoute = route;
+        if (this.orderCounter < route.size()) {
+            this.flightFinished = false;
+        }
+        return routed;
+    }
 
+    /**
+     * Gets the orders the drone has delivered so far. Orders are never changed by the drone, so the outcome of each
+     * result is still {@link OrderOutcome#ValidButNotDelivered}.
+     *
+     * @return Results of the delivered orders, in the order they were delivered.
+     */
+    public List<ValidationResult> getDelivered() {
+        return this.ordersCompleted;
+    }
 
+    /**
+     * Gets the recorder holding every move of the drone.
+     *
+     * @return FlightRecorder of the drone.
+     */
+    public FlightRecorder getFlightRecorder() {
+        return this.recorder;
     }
 
     /**
-     * Gets flightpath of the drone.
+     * Gets flightpath of the drone, from its start to after its last move.
      *
-     * @return The coordinates of the drone's flightpath as list Point objects.
+     * @return The coordinates of the drone's flightpath as list Point objects, a view of the {@link FlightRecorder}.
      */
     public List<Point> getFlightPath() {
-        return this.flightPath;
+        return this.recorder.getPoints();
     }
 
     /**
      * Gets the time that each move occurred.
      *
-     * @return The times each move occurred as list of Integers representing the time in milliseconds.
+     * @return The ticks each move occurred at, in milliseconds unless a simulated {@link TickSource} is used, a view of the {@link FlightRecorder}.
      */
-    public List<Integer> getTicks() {
-        return this.ticks;
+    public List<Long> getTicks() {
+        return this.recorder.getTicks();
     }
 
     /**
      * Gets order numbers of the order the drone was delivering at the time of each move.
      *
-     * @return The order numbers as a list of String objects.
+     * @return The order numbers as a list of String objects, a view of the {@link FlightRecorder}.
      */
     public List<String> getMoveOrderNos() {
-        return this.moveOrderNos;
+        return this.recorder.getOrderNos();
     }
 
     /**
      * Gets the directions, or angles, of each move made by the drone.
      *
-     * @return The angle measurement of each move as a list of String objects.
+     * @return The angle measurement of each move as a list of String objects, a view of the {@link FlightRecorder}.
      */
     public List<String> getDirections() {
-        return this.directions;
+        return this.recorder.getAngles();
     }
 
     /**
@@ -132,143 +243,116 @@ public class Drone {
     }
 
     /**
-     * Moves the drone using greedy algorithm according to ordering of orders to complete and return to Appleton Tower,
-     * accounting for movement constraints and battery life of drone.
+     * Moves the drone one step along its current trip according to ordering of orders to complete and return to
+     * Appleton Tower, accounting for movement constraints and battery life of drone.
+     * When the drone is at Appleton Tower it starts the next trip of the route whose moves, as flown from where the
+     * drone actually is, fit into the battery that is left. Trips are replayed from {@link PathCache}, so the drone
+     * only leaves when it is certain to get back, and the flight finishes when no remaining trip fits.
      * Adds angle direction and coordinates of each move, the time the move occurred, the order number for each move
      * to class variables.
      */
     public void move() {
 
-        LngLat current = this.currentLocation;
-        LngLat target = this.nextPos;
-
-
-        if (this.ordersCompleted.size() == this.validOrders.size() && current.closeTo(APPLETON_COORDS)) {
+        if (this.flightFinished) {
+            return;
+        }
+        if (this.targetOrder == null && !startNextTrip()) {
             this.flightFinished = true;
+            return;
+        }
 
-        } else {
-            Order targetOrder = this.orderRoute.get(this.orderCounter);
-            if (!this.finalReturn) {
-                this.moveOrderNos.add(targetOrder.getOrderNo());
-            } else {
-                this.moveOrderNos.add("no_order");
-            }
-
-            var nextPos = this.dronePos.findMove(map, target);
-            current = nextPos;
-            this.currentLocation = current;
-            this.ticks.add(Math.round(Clock.systemDefaultZone().millis()));
-            this.flightPath.add(current.asPoint());
-            this.directions.add(this.dronePos.getDirection().getAngle().toString());
-
+        int orderIndex = this.recorder.orderIndex(this.targetOrder.order().getOrderNo());
+        if (!this.plannedPath.isEmpty()) {
+            this.currentLocation = this.dronePos.move(this.plannedPath.poll());
+            this.recorder.record(this.currentLocation.lng(), this.currentLocation.lat(), this.dronePos.getDirection(),
+                    this.tickSource.ticks(), orderIndex);
             this.movesRemaining--;
+            Metrics.increment(Metrics.Counter.MOVES);
+        }
 
-            if (current.closeTo(target)) {
-                this.flightPath.add(current.asPoint());
-                this.directions.add("null");
-                this.ticks.add(Math.round(Clock.systemDefaultZone().millis()));
-                this.moveOrderNos.add(targetOrder.getOrderNo());
-
-                this.movesRemaining--;
-                if (!dronePos.isOnReturn()) {
-                    this.ordersCompleted.add(targetOrder);
-                    targetOrder.setOrderOutcome(OrderOutcome.Delivered);
-                    this.dronePos.setOnReturn(true);
-                    if (this.movesRemaining < 150) {
-                        this.finalReturn = true;
-                    } else {
-                        this.nextPos = APPLETON_COORDS;
-                    }
-
-                } else {
-                    this.dronePos.setOnReturn(false);
-                    if (finalReturn) {
-                        this.flightFinished = true;
-                    } else {
-                        orderCounter++;
-                        this.nextPos = orderRoute.get(this.orderCounter).getOrderRestaurant().getLngLat();
-                    }
-                }
+        if (this.plannedPath.isEmpty()) {
+            this.recorder.record(this.currentLocation.lng(), this.currentLocation.lat(), null,
+                    this.tickSource.ticks(), orderIndex);
+            this.movesRemaining--;
+            Metrics.increment(Metrics.Counter.MOVES);
 
+            if (!this.dronePos.isOnReturn()) {
+                this.ordersCompleted.add(this.targetOrder);
+                this.dronePos.setOnReturn(true);
+                this.plannedPath.addAll(this.pendingInbound);
+                this.pendingInbound = null;
+            } else {
+                this.dronePos.setOnReturn(false);
+                this.targetOrder = null;
             }
+        }
+    }
 
+    /**
+     * Starts the trip for the next order of the route that can be flown from the drone's current position with the
+     * battery that is left, reserving exactly the moves needed to get back to Appleton Tower.
+     *
+     * @return True if a trip was started and false if no remaining order fits.
+     */
+    private boolean startNextTrip() {
+        while (this.orderCounter < this.orderRoute.size()) {
+            ValidationResult order = this.orderRoute.get(this.orderCounter);
+            this.orderCounter++;
+            LngLat restaurant = order.supplier().getLngLat();
+            var cached = this.pathCache.getTrip(map, APPLETON_COORDS, restaurant);
+            if (cached == null) {
+                continue;
+            }
+            var trip = cached.replayFrom(map, this.currentLocation, APPLETON_COORDS, restaurant);
+            if (trip != null && trip.moves() <= this.movesRemaining) {
+                this.targetOrder = order;
+                this.plannedPath.addAll(trip.outbound());
+                this.pendingInbound = trip.inbound();
+                return true;
+            }
         }
+        return false;
     }
 
     /**
-     * Gets all orders for given day and returns the ones that are valid.
+     * Validates all orders for given day, setting the outcome of each, and returns the ones that are valid.
      *
+     * @param orders      Orders for given day.
+     * @param restaurants Restaurants participating in the service.
      * @return List of Order objects that are valid orders.
      */
-    private List<Order> allValidOrders() {
+    public static List<Order> allValidOrders(List<Order> orders, Restaurant[] restaurants) {
         List<Order> validOrders = new ArrayList<>();
-
-        for (Order order : this.allOrders) {
-
-            List<String> orderedT = order.getPizzasOrdered();
-
-            if (order.checkCardNumber() && order.checkCvv() && order.checkExpiry()) {
-                try {
-                    order.getDeliveryCost(this.restaurants, orderedT);
-
-                } catch (InvalidPizzaCombinationException ignored) {
-
-                }
-
-
-                if (!order.getPriceTotalInPence().equals(order.deliveryCostInPence())) {
-                    order.setOrderOutcome(OrderOutcome.InvalidTotal);
-                }
-
-                if (order.getOrderOutcome() == null) {
-                    validOrders.add(order);
-                    order.setOrderOutcome(OrderOutcome.ValidButNotDelivered);
-                }
-
-
-            }
+        for (ValidationResult result : OrderValidator.valid(validateAndApply(orders, restaurants))) {
+            validOrders.add(result.order());
         }
-
-
         return validOrders;
     }
 
     /**
-     * Computes route of orders to complete for the drone based on their distance to Appleton Tower.
+     * Validates orders with {@link OrderValidator} and sets the outcome, restaurant and cost of each order from its
+     * result.
      *
-     * @return List of Order objects ordered for the drone.
+     * @param orders      Orders for given day.
+     * @param restaurants Restaurants participating in the service.
+     * @return Result of each order.
      */
-    public List<Order> getRoute() {
-        List<Order> validCopy = new ArrayList<>(List.copyOf(validOrders));
-        List<Restaurant> rankedByDist = this.getRestByDist();
-        List<Order> route = new ArrayList<>();
-        for (int i = 0; i < rankedByDist.size(); i++) {
-            Restaurant currentRestaurant = rankedByDist.get(i);
-            int j = 0;
-
-            while (!validCopy.isEmpty() && j < validOrders.size()) {
-                Order currentOrder = validOrders.get(j);
-                if (currentOrder.getOrderRestaurant().equals(currentRestaurant)) {
-                    route.add(currentOrder);
-                    validCopy.remove(currentOrder);
-                }
-                j++;
-            }
+    private static List<ValidationResult> validateAndApply(List<Order> orders, Restaurant[] restaurants) {
+        List<ValidationResult> results = new OrderValidator(restaurants).validateAll(orders);
+        for (ValidationResult result : results) {
+            result.order().applyValidation(result);
         }
-        return route;
+        return results;
     }
 
     /**
-     * Sorts restaurants by there distance to Appleton Tower
+     * Computes route of orders to complete for the drone with {@link DeliveryScheduler}, cheapest round trip first so
+     * that the most orders fit into the battery.
      *
-     * @return List of restaurants sorted by distance
+     * @return Results of the valid orders in the order the drone delivers them.
      */
-    public List<Restaurant> getRestByDist() {
-
-        List<Restaurant> restaurantList = Arrays.asList(restaurants);
-        List<Restaurant> sortedRestaurants = restaurantList.stream().sorted(Comparator.comparing(Restaurant::getDistToAppleton)).collect(Collectors.toList());
-
-        return sortedRestaurants;
+    public List<ValidationResult> getRoute() {
+        return new DeliveryScheduler(this.map, this.pathCache, APPLETON_COORDS).schedule(this.validOrders);
     }
 
 
@@ -1,15 +1,18 @@
 package uk.ac.ed.inf;
 
-import com.mapbox.geojson.Polygon;
-
-import java.awt.geom.Line2D;
-
 /**
  * Class representing the drones position and computes next moves.
  *
  * @author s2107575
  */
 public class DronePos {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * Compass points to rotate the best direction by, in the order they are tried when a move is not valid.
+     */
+    private static final int[] TRY_OFFSETS = {0, -1, 1, -2, 2, -3, 3, -4, 4};
+
     private LngLat position;
 
     private Direction direction;
@@ -71,11 +74,16 @@ public class DronePos {
      * @return Best direction for drone to move in.
      */
     public Direction getBestDirection(LngLat currentPos, LngLat targetPos) {
-        Double minDistance = Double.MAX_VALUE;
+        double lng = currentPos.lng();
+        double lat = currentPos.lat();
+        double targetLng = targetPos.lng();
+        double targetLat = targetPos.lat();
+        double minDistance = Double.MAX_VALUE;
         Direction bestDirection = Direction.E;
-        for (Direction d : Direction.values()) {
-            LngLat possibleMove = currentPos.nextPosition(d);
-            Double distance = possibleMove.distanceTo(targetPos);
+        for (Direction d : DIRECTIONS) {
+            double lngDist = lng + d.dLng() - targetLng;
+            double latDist = lat + d.dLat() - targetLat;
+            double distance = lngDist * lngDist + latDist * latDist;
             if (distance < minDistance) {
                 minDistance = distance;
                 bestDirection = d;
@@ -90,42 +98,68 @@ public class DronePos {
      * Checks that a proposed move for the drone is valid by checking that it is not reentering the Central Area
      * before it has delivered an order and that it is not entering a NoFLyZone.
      *
-     * @param map     Map representing the PizzaDronz area of service and its elements.
-     * @param nextPos Proposed next position for the drone.
+     * @param map       Map representing the PizzaDronz area of service and its elements.
+     * @param direction Direction of the proposed move from the current position.
      * @return True if move does not violate any constraints and false otherwise.
      */
-    private boolean validMove(Map map, LngLat nextPos) {
-
-        boolean illegalLeavingCA = false;
-        var pathToTry = new Line2D.Double(this.position.lat(), this.position.lng(),
-                nextPos.lat(), nextPos.lng());
-        if (this.position.inCentralArea() && !nextPos.inCentralArea() && this.onReturn) {
-            illegalLeavingCA = true;
-        }
-        boolean illegalInNoFly = false;
-
-        var noFly = map.getNoFlyZones();
-        for (Polygon zone : noFly) {
-            var points = zone.coordinates().get(0);
-            for (int i = 0; i < points.size() - 1; i++) {
-                int j = (i + 1) % points.size();
-                Line2D zoneBarrier = new Line2D.Double(points.get(i).longitude(),
-                        points.get(i).latitude(), points.get(j).longitude(), points.get(j).latitude());
-                if (pathToTry.intersectsLine(zoneBarrier)) {
-                    illegalInNoFly = true;
-                    break;
-                }
-
-            }
-            if (illegalInNoFly) {
-                break;
-            }
+    private boolean validMove(Map map, Direction direction) {
+        double lng = this.position.lng();
+        double lat = this.position.lat();
+        return isLegalMove(map, lng, lat, lng + direction.dLng(), lat + direction.dLat(), this.onReturn);
+    }
 
+    /**
+     * Checks that a move between two positions is legal, meaning that it does not leave the Central Area once the
+     * drone is on its return and that it does not cross the edge of any NoFlyZone. Only the NoFlyZone edges near the
+     * move are tested, using the {@link NoFlyIndex} of the map, and the Central Area is the map's
+     * {@link PreparedPolygon}.
+     * Shared by {@link #findMove} and {@link AStarPlanner} so that planned paths obey the same rules as greedy moves.
+     *
+     * @param map      Map representing the PizzaDronz area of service and its elements.
+     * @param from     Position the drone is moving from.
+     * @param to       Proposed next position for the drone.
+     * @param onReturn True if the drone is returning from an order.
+     * @return True if move does not violate any constraints and false otherwise.
+     */
+    public static boolean isLegalMove(Map map, LngLat from, LngLat to, boolean onReturn) {
+        return isLegalMove(map, from.lng(), from.lat(), to.lng(), to.lat(), onReturn);
+    }
 
+    /**
+     * Checks that a move between two positions given as raw coordinates is legal, without creating any objects.
+     *
+     * @param map      Map representing the PizzaDronz area of service and its elements.
+     * @param fromLng  Longitude the drone is moving from.
+     * @param fromLat  Latitude the drone is moving from.
+     * @param toLng    Proposed next longitude for the drone.
+     * @param toLat    Proposed next latitude for the drone.
+     * @param onReturn True if the drone is returning from an order.
+     * @return True if move does not violate any constraints and false otherwise.
+     */
+    public static boolean isLegalMove(Map map, double fromLng, double fromLat, double toLng, double toLat,
+                                      boolean onReturn) {
+
+        Metrics.increment(Metrics.Counter.LEGAL_MOVE_CHECKS);
+        PreparedPolygon centralArea = map.getCentralArea();
+        if ((onReturn && centralArea.contains(fromLng, fromLat) && !centralArea.contains(toLng, toLat))
+                || map.getNoFlyIndex().intersects(fromLng, fromLat, toLng, toLat)) {
+            Metrics.increment(Metrics.Counter.REJECTED_MOVES);
+            return false;
         }
+        return true;
 
-        return !illegalLeavingCA && !illegalInNoFly;
+    }
 
+    /**
+     * Moves the drone one step in the given direction, as decided by a path planner.
+     *
+     * @param direction Direction of the move.
+     * @return The coordinate of the drone after the move as LngLat object.
+     */
+    public LngLat move(Direction direction) {
+        this.position = this.position.nextPosition(direction);
+        this.direction = direction;
+        return getPosition();
     }
 
     /**
@@ -137,23 +171,11 @@ public class DronePos {
      */
     public LngLat findMove(Map map, LngLat targetPos) {
         var bestDirection = getBestDirection(position, targetPos);
-        var nextPos = position.nextPosition(bestDirection);
-
-        if (validMove(map, nextPos)) {
-            this.position = nextPos;
-            this.direction = bestDirection;
-
-        } else {
-            double[] tryAngles = {-22.5, 22.5, -45, 45, -62.5, 62.5, -90, 90};
-            for (int i = 0; i < tryAngles.length - 1; i++) {
-                double tryAngle = bestDirection.getAngle() + tryAngles[i];
-                Direction tryDirection = Direction.getDirection(tryAngle);
-                var tryNextPos = position.nextPosition(tryDirection);
-                if (validMove(map, tryNextPos)) {
-                    this.position = tryNextPos;
-                    this.direction = tryDirection;
-
-                }
+
+        for (int offset : TRY_OFFSETS) {
+            Direction tryDirection = bestDirection.rotate(offset);
+            if (validMove(map, tryDirection)) {
+                return move(tryDirection);
             }
         }
         return getPosition();
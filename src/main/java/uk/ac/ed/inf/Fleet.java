@@ -0,0 +1,140 @@
+package uk.ac.ed.inf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Class representing a fleet of drones delivering one day's orders together.
+ * The valid orders are split across the drones so that each gets the orders that best fill its battery, then every
+ * drone flies on its own core. All drones share one {@link Map}, one {@link PathCache} and one validation of the orders,
+ * and each order belongs to exactly one drone, so the drones never write to shared state while flying.
+ *
+ * @author s2107575
+ */
+public class Fleet {
+    private static final LngLat APPLETON_COORDS = new LngLat(-3.186874, 55.944494);
+    private final List<Drone> drones;
+
+    /**
+     * Fleet of drones for the given day's valid orders.
+     *
+     * @param map         Map representing the PizzaDronz area of service and its elements.
+     * @param validOrders Results of the valid orders for the day.
+     * @param restaurants Restaurants participating in the service.
+     * @param pathCache   Cache of planned trips between Appleton Tower and the restaurants.
+     * @param size        Number of drones in the fleet.
+     */
+    public Fleet(Map map, List<ValidationResult> validOrders, Restaurant[] restaurants, PathCache pathCache, int size) {
+        this(map, validOrders, restaurants, pathCache, size, TickSource.monotonic());
+    }
+
+    /**
+     * Fleet of drones for the given day's valid orders, each drone recording its moves on its own fork of the given
+     * tick source.
+     *
+     * @param map         Map representing the PizzaDronz area of service and its elements.
+     * @param validOrders Results of the valid orders for the day.
+     * @param restaurants Restaurants participating in the service.
+     * @param pathCache   Cache of planned trips between Appleton Tower and the restaurants.
+     * @param size        Number of drones in the fleet.
+     * @param tickSource  Source of the ticks the drones record their moves at.
+     */
+    public Fleet(Map map, List<ValidationResult> validOrders, Restaurant[] restaurants, PathCache pathCache, int size,
+                 TickSource tickSource) {
+        if (size < 1) {
+            throw new IllegalArgumentException("A fleet needs at least one drone");
+        }
+        List<List<ValidationResult>> shares = split(new DeliveryScheduler(map, pathCache, APPLETON_COORDS), validOrders, size);
+        this.drones = new ArrayList<>(size);
+        for (List<ValidationResult> share : shares) {
+            this.drones.add(Drone.forValidOrders(map, share, restaurants, pathCache, tickSource.fork()));
+        }
+    }
+
+    /**
+     * Splits orders across drones. Orders are taken cheapest round trip first and each goes to the drone with the
+     * most battery left, so the cheap orders are spread over the whole fleet.
+     *
+     * @param scheduler   Scheduler pricing the round trip of each order.
+     * @param validOrders Valid orders to split.
+     * @param size        Number of drones.
+     * @return Orders of each drone.
+     */
+    private static List<List<ValidationResult>> split(DeliveryScheduler scheduler, List<ValidationResult> validOrders,
+                                                      int size) {
+        List<List<ValidationResult>> shares = new ArrayList<>(size);
+        int[] battery = new int[size];
+        for (int i = 0; i < size; i++) {
+            shares.add(new ArrayList<>());
+            battery[i] = Drone.BATTERY_MOVES;
+        }
+        for (ValidationResult order : scheduler.schedule(validOrders)) {
+            int best = 0;
+            for (int i = 1; i < size; i++) {
+                if (battery[i] > battery[best]) {
+                    best = i;
+                }
+            }
+            shares.get(best).add(order);
+            battery[best] -= Math.min(battery[best], scheduler.tripCost(order.supplier()));
+        }
+        return shares;
+    }
+
+    /**
+     * Flies every drone of the fleet until it has finished its flight or its battery is empty, with the drones flying
+     * in parallel.
+     */
+    public void fly() {
+        int threads = Math.max(1, Math.min(this.drones.size(), Runtime.getRuntime().availableProcessors()));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<Callable<Drone>> flights = new ArrayList<>(this.drones.size());
+            for (Drone drone : this.drones) {
+                flights.add(() -> {
+                    do {
+                        drone.move();
+                    }
+                    while (!drone.flightFinished && drone.getMovesRemaining() > 0);
+                    return drone;
+                });
+            }
+            for (Future<Drone> flight : pool.invokeAll(flights)) {
+                flight.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while flying the fleet", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A drone of the fleet failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Gets the drones of the fleet, their index being their drone id.
+     *
+     * @return List of Drone objects.
+     */
+    public List<Drone> getDrones() {
+        return this.drones;
+    }
+
+    /**
+     * Gets the flight recorder of each drone, in drone id order.
+     *
+     * @return List of FlightRecorder objects.
+     */
+    public List<FlightRecorder> getFlightRecorders() {
+        List<FlightRecorder> recorders = new ArrayList<>(this.drones.size());
+        for (Drone drone : this.drones) {
+            recorders.add(drone.getFlightRecorder());
+        }
+        return recorders;
+    }
+}
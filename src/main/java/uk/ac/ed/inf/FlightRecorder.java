@@ -0,0 +1,278 @@
+package uk.ac.ed.inf;
+
+import com.mapbox.geojson.Point;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Records every move of a drone in growable primitive columns instead of lists of objects.
+ * Position i is where the drone is after move i, with position 0 being where it started, so move i goes from position
+ * i to position i + 1. Each move also has the ordinal of its {@link Direction} ({@link #HOVER} if the drone hovered),
+ * the tick it happened at and the index of the order it was made for ({@link #NO_ORDER} if none).
+ *
+ * @author s2107575
+ */
+public class FlightRecorder {
+    /**
+     * Direction column value of a move where the drone hovers in place.
+     */
+    public static final byte HOVER = -1;
+
+    /**
+     * Order column value of a move that is not made for an order.
+     */
+    public static final int NO_ORDER = -1;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private double[] lngs;
+    private double[] lats;
+    private byte[] directions;
+    private long[] ticks;
+    private int[] orderIndices;
+    private int moves;
+
+    private final List<String> orderNos;
+    private final java.util.Map<String, Integer> orderIndexByNo;
+
+    /**
+     * Recorder for a drone starting from the given position.
+     *
+     * @param start Position the drone starts from.
+     */
+    public FlightRecorder(LngLat start) {
+        this.lngs = new double[INITIAL_CAPACITY + 1];
+        this.lats = new double[INITIAL_CAPACITY + 1];
+        this.directions = new byte[INITIAL_CAPACITY];
+        this.ticks = new long[INITIAL_CAPACITY];
+        this.orderIndices = new int[INITIAL_CAPACITY];
+        this.lngs[0] = start.lng();
+        this.lats[0] = start.lat();
+        this.moves = 0;
+        this.orderNos = new ArrayList<>();
+        this.orderIndexByNo = new HashMap<>();
+    }
+
+    /**
+     * Gets the index of an order number in the order table, adding it if it is not yet there.
+     *
+     * @param orderNo Order number.
+     * @return Index of the order number, to be passed to {@link #record}.
+     */
+    public int orderIndex(String orderNo) {
+        Integer index = this.orderIndexByNo.get(orderNo);
+        if (index == null) {
+            index = this.orderNos.size();
+            this.orderNos.add(orderNo);
+            this.orderIndexByNo.put(orderNo, index);
+        }
+        return index;
+    }
+
+    /**
+     * Records a move.
+     *
+     * @param lng        Longitude of the drone after the move.
+     * @param lat        Latitude of the drone after the move.
+     * @param direction  Direction of the move, or null if the drone hovered.
+     * @param tick       Tick the move happened at.
+     * @param orderIndex Index of the order the move was made for from {@link #orderIndex}, or {@link #NO_ORDER}.
+     */
+    public void record(double lng, double lat, Direction direction, long tick, int orderIndex) {
+        if (this.moves == this.directions.length) {
+            int capacity = this.directions.length * 2;
+            this.lngs = Arrays.copyOf(this.lngs, capacity + 1);
+            this.lats = Arrays.copyOf(this.lats, capacity + 1);
+            this.directions = Arrays.copyOf(this.directions, capacity);
+            this.ticks = Arrays.copyOf(this.ticks, capacity);
+            this.orderIndices = Arrays.copyOf(this.orderIndices, capacity);
+        }
+        this.lngs[this.moves + 1] = lng;
+        this.lats[this.moves + 1] = lat;
+        this.directions[this.moves] = direction == null ? HOVER : (byte) direction.ordinal();
+        this.ticks[this.moves] = tick;
+        this.orderIndices[this.moves] = orderIndex;
+        this.moves++;
+    }
+
+    /**
+     * Gets the number of moves recorded.
+     *
+     * @return Number of moves.
+     */
+    public int size() {
+        return this.moves;
+    }
+
+    /**
+     * Gets the longitude of a position, position 0 being the start.
+     *
+     * @param position Index of the position, from 0 to {@link #size()}.
+     * @return Longitude of the position.
+     */
+    public double lng(int position) {
+        return this.lngs[position];
+    }
+
+    /**
+     * Gets the latitude of a position, position 0 being the start.
+     *
+     * @param position Index of the position, from 0 to {@link #size()}.
+     * @return Latitude of the position.
+     */
+    public double lat(int position) {
+        return this.lats[position];
+    }
+
+    /**
+     * Gets the direction column value of a move.
+     *
+     * @param move Index of the move.
+     * @return Ordinal of the Direction of the move, or {@link #HOVER}.
+     */
+    public byte directionOrdinal(int move) {
+        return this.directions[move];
+    }
+
+    /**
+     * Gets the direction of a move.
+     *
+     * @param move Index of the move.
+     * @return Direction of the move, or null if the drone hovered.
+     */
+    public Direction direction(int move) {
+        byte ordinal = this.directions[move];
+        return ordinal == HOVER ? null : Direction.values()[ordinal];
+    }
+
+    /**
+     * Gets the angle of a move as written in the flightpath file.
+     *
+     * @param move Index of the move.
+     * @return Angle of the move in degrees as a String, or "null" if the drone hovered.
+     */
+    public String angle(int move) {
+        Direction direction = direction(move);
+        return direction == null ? "null" : direction.getAngle().toString();
+    }
+
+    /**
+     * Gets the tick a move happened at.
+     *
+     * @param move Index of the move.
+     * @return Tick of the move.
+     */
+    public long tick(int move) {
+        return this.ticks[move];
+    }
+
+    /**
+     * Gets the order index of a move.
+     *
+     * @param move Index of the move.
+     * @return Index of the order in the order table, or {@link #NO_ORDER}.
+     */
+    public int orderIndex(int move) {
+        return this.orderIndices[move];
+    }
+
+    /**
+     * Gets the order number of a move.
+     *
+     * @param move Index of the move.
+     * @return Order number, or "no_order" if the move was not made for an order.
+     */
+    public String orderNo(int move) {
+        int index = this.orderIndices[move];
+        return index == NO_ORDER ? "no_order" : this.orderNos.get(index);
+    }
+
+    /**
+     * Gets the order table that the order column indexes into.
+     *
+     * @return Order numbers in the order they were first recorded.
+     */
+    public List<String> getOrderTable() {
+        return this.orderNos;
+    }
+
+    /**
+     * Gets the positions of the drone as GeoJson points, from the start to after the last move.
+     *
+     * @return View of the positions.
+     */
+    public List<Point> getPoints() {
+        return new AbstractList<>() {
+            @Override
+            public Point get(int index) {
+                return Point.fromLngLat(lngs[index], lats[index]);
+            }
+
+            @Override
+            public int size() {
+                return moves + 1;
+            }
+        };
+    }
+
+    /**
+     * Gets the angles of the moves as written in the flightpath file.
+     *
+     * @return View of the angles.
+     */
+    public List<String> getAngles() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return angle(index);
+            }
+
+            @Override
+            public int size() {
+                return moves;
+            }
+        };
+    }
+
+    /**
+     * Gets the ticks of the moves.
+     *
+     * @return View of the ticks.
+     */
+    public List<Long> getTicks() {
+        return new AbstractList<>() {
+            @Override
+            public Long get(int index) {
+                return tick(index);
+            }
+
+            @Override
+            public int size() {
+                return moves;
+            }
+        };
+    }
+
+    /**
+     * Gets the order numbers of the moves.
+     *
+     * @return View of the order numbers.
+     */
+    public List<String> getOrderNos() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return orderNo(index);
+            }
+
+            @Override
+            public int size() {
+                return moves;
+            }
+        };
+    }
+}
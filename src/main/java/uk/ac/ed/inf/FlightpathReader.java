@@ -0,0 +1,316 @@
+package uk.ac.ed.inf;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a binary flightpath file written by {@link WriteFlightpath#writeBinaryFile}, described in
+ * {@link BinaryFlightpath}. The file is memory-mapped, so any move can be read by its index without reading the moves
+ * before it, and many files can be scanned without parsing JSON. A file can also be converted back to the JSON
+ * flightpath it stands for, byte for byte the same as {@link WriteFlightpath} writes.
+ *
+ * @author s2107575
+ */
+public final class FlightpathReader implements AutoCloseable {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final boolean withDroneId;
+    private final long start;
+    private final int moves;
+    private final int keyframeInterval;
+    private final int[] firstMoves;
+    private final int[] droneMoves;
+    private final int[] firstKeyframes;
+    private final int[] explicitMoves;
+    private final String[] orderNos;
+    private final int keyframesOffset;
+    private final int movesOffset;
+    private final int explicitOffset;
+
+    private FlightpathReader(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        if (buffer.limit() < BinaryFlightpath.HEADER_SIZE || buffer.getInt(0) != BinaryFlightpath.MAGIC) {
+            throw new IOException("Not a binary flightpath file");
+        }
+        if (buffer.getShort(4) != BinaryFlightpath.VERSION) {
+            throw new IOException("Unsupported binary flightpath version " + buffer.getShort(4));
+        }
+        this.withDroneId = (buffer.getShort(6) & BinaryFlightpath.FLAG_DRONE_IDS) != 0;
+        this.start = buffer.getLong(8);
+        int drones = buffer.getInt(16);
+        this.moves = buffer.getInt(20);
+        int keyframes = buffer.getInt(24);
+        int explicit = buffer.getInt(28);
+        int orders = buffer.getInt(32);
+        this.keyframeInterval = buffer.getInt(36);
+
+        this.firstMoves = new int[drones];
+        this.droneMoves = new int[drones];
+        this.firstKeyframes = new int[drones];
+        int offset = BinaryFlightpath.HEADER_SIZE;
+        for (int droneId = 0; droneId < drones; droneId++) {
+            this.firstMoves[droneId] = buffer.getInt(offset);
+            this.droneMoves[droneId] = buffer.getInt(offset + 4);
+            this.firstKeyframes[droneId] = buffer.getInt(offset + 8);
+            offset += BinaryFlightpath.DRONE_SIZE;
+        }
+        this.keyframesOffset = offset;
+        this.movesOffset = this.keyframesOffset + keyframes * BinaryFlightpath.KEYFRAME_SIZE;
+        this.explicitOffset = this.movesOffset + this.moves * BinaryFlightpath.MOVE_SIZE;
+        this.explicitMoves = new int[explicit];
+        for (int i = 0; i < explicit; i++) {
+            this.explicitMoves[i] = buffer.getInt(this.explicitOffset + i * BinaryFlightpath.EXPLICIT_SIZE);
+        }
+        offset = this.explicitOffset + explicit * BinaryFlightpath.EXPLICIT_SIZE;
+        this.orderNos = new String[orders];
+        for (int i = 0; i < orders; i++) {
+            int length = buffer.getInt(offset);
+            byte[] bytes = new byte[length];
+            buffer.get(offset + 4, bytes);
+            this.orderNos[i] = new String(bytes, StandardCharsets.UTF_8);
+            offset += 4 + length;
+        }
+    }
+
+    /**
+     * Opens and maps a binary flightpath file.
+     *
+     * @param path Path of the file.
+     * @return Reader of the file, to be closed when done.
+     * @throws IOException If the file cannot be read or is not a binary flightpath file.
+     */
+    public static FlightpathReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new FlightpathReader(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of moves of every drone together.
+     *
+     * @return Number of moves.
+     */
+    public int size() {
+        return this.moves;
+    }
+
+    /**
+     * Gets the number of drones.
+     *
+     * @return Number of drones.
+     */
+    public int droneCount() {
+        return this.firstMoves.length;
+    }
+
+    /**
+     * Gets the tick the calculation started at.
+     *
+     * @return Start tick.
+     */
+    public long start() {
+        return this.start;
+    }
+
+    /**
+     * Gets the id of the drone that made a move. The moves of each drone follow those of the drone before it.
+     *
+     * @param move Index of the move.
+     * @return Id of the drone.
+     */
+    public int droneId(int move) {
+        int droneId = Arrays.binarySearch(this.firstMoves, move);
+        if (droneId < 0) {
+            return -droneId - 2;
+        }
+        // Drones without moves share their first move with the drone after them.
+        while (droneId + 1 < this.firstMoves.length && this.firstMoves[droneId + 1] == move) {
+            droneId++;
+        }
+        return droneId;
+    }
+
+    /**
+     * Gets the tick a move happened at.
+     *
+     * @param move Index of the move.
+     * @return Tick of the move.
+     */
+    public long tick(int move) {
+        return this.start + this.buffer.getInt(moveOffset(move));
+    }
+
+    /**
+     * Gets the order number of a move.
+     *
+     * @param move Index of the move.
+     * @return Order number, or "no_order" if the move was not made for an order.
+     */
+    public String orderNo(int move) {
+        int index = this.buffer.getInt(moveOffset(move) + 4);
+        return index == FlightRecorder.NO_ORDER ? "no_order" : this.orderNos[index];
+    }
+
+    /**
+     * Gets the direction of a move.
+     *
+     * @param move Index of the move.
+     * @return Direction of the move, or null if the drone hovered.
+     */
+    public Direction direction(int move) {
+        byte ordinal = this.buffer.get(moveOffset(move) + 8);
+        return ordinal == FlightRecorder.HOVER ? null : DIRECTIONS[ordinal];
+    }
+
+    /**
+     * Gets the angle of a move as written in the flightpath file.
+     *
+     * @param move Index of the move.
+     * @return Angle of the move in degrees as a String, or "null" if the drone hovered.
+     */
+    public String angle(int move) {
+        Direction direction = direction(move);
+        return direction == null ? "null" : direction.getAngle().toString();
+    }
+
+    /**
+     * Gets the position of the drone before a move, replaying at most a keyframe interval of moves.
+     *
+     * @param move Index of the move.
+     * @param out  Array the longitude and latitude are written to, at index 0 and 1.
+     */
+    public void from(int move, double[] out) {
+        moveOffset(move);
+        int droneId = droneId(move);
+        position(droneId, move - this.firstMoves[droneId], out);
+    }
+
+    /**
+     * Gets the position of the drone after a move, replaying at most a keyframe interval of moves.
+     *
+     * @param move Index of the move.
+     * @param out  Array the longitude and latitude are written to, at index 0 and 1.
+     */
+    public void to(int move, double[] out) {
+        moveOffset(move);
+        int droneId = droneId(move);
+        position(droneId, move - this.firstMoves[droneId] + 1, out);
+    }
+
+    /**
+     * Writes the moves as the JSON flightpath they were recorded as.
+     *
+     * @param generator Generator to write to.
+     * @throws IOException If the JSON cannot be written.
+     */
+    public void writeJson(JsonGenerator generator) throws IOException {
+        double[] position = new double[2];
+        generator.writeStartArray();
+        for (int droneId = 0; droneId < droneCount(); droneId++) {
+            position(droneId, 0, position);
+            for (int i = 0; i < this.droneMoves[droneId]; i++) {
+                int move = this.firstMoves[droneId] + i;
+                double fromLng = position[0];
+                double fromLat = position[1];
+                step(move, position);
+                WriteFlightpath.writeRecord(generator, tick(move) - this.start, orderNo(move),
+                        this.withDroneId ? droneId : null, fromLng, fromLat, angle(move), position[0], position[1]);
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Converts a binary flightpath file to the JSON flightpath file it stands for.
+     *
+     * @param binary Path of the binary file.
+     * @param json   Path of the JSON file to write.
+     * @throws IOException If either file cannot be read or written.
+     */
+    public static void toJson(Path binary, Path json) throws IOException {
+        try (FlightpathReader reader = open(binary);
+             JsonGenerator generator = JsonOutput.open(json.toString())) {
+            reader.writeJson(generator);
+        }
+    }
+
+    /**
+     * Converts binary flightpath files to JSON, writing each next to its binary file with a .json extension.
+     *
+     * @param args Paths of the binary files.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Invalid input: please enter the binary flightpath files to convert to JSON");
+            System.exit(1);
+        }
+        int failed = 0;
+        for (String arg : args) {
+            Path binary = Path.of(arg);
+            String name = binary.getFileName().toString();
+            Path json = binary.resolveSibling(name.replaceFirst("\\.bin$", "") + ".json");
+            try {
+                toJson(binary, json);
+            } catch (IOException e) {
+                System.err.println("Could not convert " + binary + ": " + e.getMessage());
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            System.exit(2);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private int moveOffset(int move) {
+        if (move < 0 || move >= this.moves) {
+            throw new IndexOutOfBoundsException("Move " + move + " out of " + this.moves);
+        }
+        return this.movesOffset + move * BinaryFlightpath.MOVE_SIZE;
+    }
+
+    /**
+     * Finds a position of a drone from the keyframe before it, replaying the moves in between.
+     */
+    private void position(int droneId, int position, double[] out) {
+        int keyframe = position / this.keyframeInterval;
+        int offset = this.keyframesOffset + (this.firstKeyframes[droneId] + keyframe) * BinaryFlightpath.KEYFRAME_SIZE;
+        out[0] = this.buffer.getDouble(offset);
+        out[1] = this.buffer.getDouble(offset + 8);
+        for (int i = keyframe * this.keyframeInterval; i < position; i++) {
+            step(this.firstMoves[droneId] + i, out);
+        }
+    }
+
+    /**
+     * Moves a position on by one move.
+     */
+    private void step(int move, double[] position) {
+        if ((this.buffer.get(moveOffset(move) + 9) & BinaryFlightpath.MOVE_EXPLICIT) != 0) {
+            int offset = this.explicitOffset
+                    + Arrays.binarySearch(this.explicitMoves, move) * BinaryFlightpath.EXPLICIT_SIZE;
+            position[0] = this.buffer.getDouble(offset + 4);
+            position[1] = this.buffer.getDouble(offset + 12);
+        } else {
+            LngLat.nextPosition(position[0], position[1], direction(move), position);
+        }
+    }
+}
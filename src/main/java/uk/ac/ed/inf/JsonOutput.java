@@ -0,0 +1,117 @@
+package uk.ac.ed.inf;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.CharacterEscapes;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Opens the streaming Jackson generators the result files are written with. Records go straight to a buffered file
+ * as they are generated, so writing a file never holds it in memory whole. Strings are escaped and numbers formatted
+ * the way json-simple and the GeoJson library wrote them, so the files are byte for byte the same as before.
+ *
+ * @author s2107575
+ */
+public final class JsonOutput {
+    private static final JsonFactory FACTORY = new JsonFactory();
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final double GEOJSON_PRECISION = 1e7;
+    private static final long GEOJSON_MAX_ROUNDED = (long) (Long.MAX_VALUE / GEOJSON_PRECISION);
+
+    private JsonOutput() {
+    }
+
+    /**
+     * Opens a generator writing to a file, replacing it if it exists.
+     *
+     * @param path Path of the file.
+     * @return Generator that closes the file when it is closed.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static JsonGenerator open(String path) throws IOException {
+        return generator(new BufferedOutputStream(new FileOutputStream(path), BUFFER_SIZE));
+    }
+
+    /**
+     * Opens a generator writing to a stream.
+     *
+     * @param out Stream to write to.
+     * @return Generator that closes the stream when it is closed.
+     * @throws IOException If the generator cannot be created.
+     */
+    public static JsonGenerator generator(OutputStream out) throws IOException {
+        JsonGenerator generator = FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        generator.setCharacterEscapes(JsonSimpleEscapes.INSTANCE);
+        return generator;
+    }
+
+    /**
+     * Writes a double as json-simple did, as null if it is not finite.
+     *
+     * @param generator Generator to write to.
+     * @param value     Value to write.
+     * @throws IOException If the value cannot be written.
+     */
+    public static void writeDouble(JsonGenerator generator, double value) throws IOException {
+        if (Double.isFinite(value)) {
+            generator.writeNumber(value);
+        } else {
+            generator.writeNull();
+        }
+    }
+
+    /**
+     * Writes a GeoJson coordinate as the GeoJson library did, rounded to seven decimal places.
+     *
+     * @param generator Generator to write to.
+     * @param value     Longitude or latitude to write.
+     * @throws IOException If the value cannot be written.
+     */
+    public static void writeCoordinate(JsonGenerator generator, double value) throws IOException {
+        if (value > GEOJSON_MAX_ROUNDED || value < -GEOJSON_MAX_ROUNDED) {
+            generator.writeNumber(value);
+        } else {
+            generator.writeNumber(Math.round(value * GEOJSON_PRECISION) / GEOJSON_PRECISION);
+        }
+    }
+
+    /**
+     * Escapes of json-simple on top of those Jackson makes anyway: the solidus and the control and punctuation
+     * ranges it writes as unicode escapes.
+     */
+    private static final class JsonSimpleEscapes extends CharacterEscapes {
+        private static final long serialVersionUID = 1L;
+        private static final JsonSimpleEscapes INSTANCE = new JsonSimpleEscapes();
+        private static final SerializedString SOLIDUS = new SerializedString("\\/");
+        private final int[] asciiEscapes;
+
+        private JsonSimpleEscapes() {
+            this.asciiEscapes = standardAsciiEscapesForJSON();
+            this.asciiEscapes['/'] = ESCAPE_CUSTOM;
+            this.asciiEscapes[0x7F] = ESCAPE_STANDARD;
+        }
+
+        @Override
+        public int[] getEscapeCodesForAscii() {
+            return this.asciiEscapes;
+        }
+
+        @Override
+        public SerializableString getEscapeSequence(int ch) {
+            if (ch == '/') {
+                return SOLIDUS;
+            }
+            if ((ch >= 0x80 && ch <= 0x9F) || (ch >= 0x2000 && ch <= 0x20FF)) {
+                return new SerializedString(String.format("\\u%04X", ch));
+            }
+            return null;
+        }
+    }
+}
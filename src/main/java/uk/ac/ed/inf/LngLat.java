@@ -5,9 +5,6 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.mapbox.geojson.Point;
 
-import java.io.IOException;
-import java.util.List;
-
 
 /**
  * Record stores latitude and longitude coordinates in the form of an Object.
@@ -29,18 +26,13 @@ public record LngLat(
 
 
     /**
-     * Determines if LatLng coordinate is within the University's Central Area by retrieving the Central Area coordinates
-     * from {@link CentralArea} and checking with {@link InArea}.
+     * Determines if LatLng coordinate is within the University's Central Area using the polygon prepared by
+     * {@link CentralArea}.
      *
      * @return True if coordinate is in the central area and false otherwise
-     * @throws IOException If URL cannot be reached in {@link CentralArea}
      */
     public boolean inCentralArea() {
-        CentralArea centralArea = CentralArea.getCentralAreaInstance("");
-        List<LngLat> coords = centralArea.getCoords();
-        System.out.println(coords);
-        InArea inArea = new InArea();
-        return inArea.inArea(coords, coords.size(), this);
+        return CentralArea.getPreparedArea().contains(this.lng, this.lat);
     }
 
 
@@ -76,10 +68,26 @@ public record LngLat(
         if (direction == null) {
             return this;
         } else {
-            Double angle = Math.toRadians(direction.getAngle());
-            Double newLat = this.lat + (Math.sin(angle) * LngLat.MOVE_DIST);
-            Double newLng = this.lng + (Math.cos(angle) * LngLat.MOVE_DIST);
-            return new LngLat(newLng, newLat);
+            return new LngLat(this.lng + direction.dLng(), this.lat + direction.dLat());
+        }
+    }
+
+    /**
+     * Computes the position after a move in a specified compass direction from raw coordinates, without creating
+     * any objects.
+     *
+     * @param lng       Longitude to move from.
+     * @param lat       Latitude to move from.
+     * @param direction Compass direction as Enum type {@link Direction}, or null to stay in place.
+     * @param out       Array the new longitude and latitude are written to, at index 0 and 1.
+     */
+    public static void nextPosition(double lng, double lat, Direction direction, double[] out) {
+        if (direction == null) {
+            out[0] = lng;
+            out[1] = lat;
+        } else {
+            out[0] = lng + direction.dLng();
+            out[1] = lat + direction.dLat();
         }
     }
 
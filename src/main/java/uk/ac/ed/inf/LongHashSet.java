@@ -0,0 +1,129 @@
+package uk.ac.ed.inf;
+
+import java.util.Arrays;
+
+/**
+ * Set of primitive longs with open addressing and linear probing, used for the closed sets of searches over the move
+ * lattice. Keys are held in a single long array kept at most half full, so adding and looking up a key neither boxes
+ * it nor allocates an entry, unlike a {@code HashSet<Long>}.
+ * {@link Long#MIN_VALUE} marks a free slot, so that key is tracked with a flag instead.
+ *
+ * @author s2107575
+ */
+public final class LongHashSet {
+    private static final long FREE = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean hasFree;
+
+    /**
+     * Empty set.
+     */
+    public LongHashSet() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Empty set with room for the given number of keys before it grows.
+     *
+     * @param expected Number of keys expected.
+     */
+    public LongHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expected * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        Arrays.fill(this.keys, FREE);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Gets the slot a key is first looked for in, spreading the bits of the key so that keys differing only in their
+     * high bits, such as packed cell coordinates, do not all probe from the same slot.
+     *
+     * @param key Key to find the slot of.
+     * @return Index of the slot.
+     */
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & this.mask;
+    }
+
+    /**
+     * Adds a key to the set.
+     *
+     * @param key Key to add.
+     * @return True if the key was not in the set yet.
+     */
+    public boolean add(long key) {
+        if (key == FREE) {
+            if (this.hasFree) {
+                return false;
+            }
+            this.hasFree = true;
+            this.size++;
+            return true;
+        }
+        int i = slot(key);
+        while (this.keys[i] != FREE) {
+            if (this.keys[i] == key) {
+                return false;
+            }
+            i = (i + 1) & this.mask;
+        }
+        this.keys[i] = key;
+        if (++this.size * 2 > this.keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a key is in the set.
+     *
+     * @param key Key to look up.
+     * @return True if the key was added before.
+     */
+    public boolean contains(long key) {
+        if (key == FREE) {
+            return this.hasFree;
+        }
+        int i = slot(key);
+        while (this.keys[i] != FREE) {
+            if (this.keys[i] == key) {
+                return true;
+            }
+            i = (i + 1) & this.mask;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of keys in the set.
+     *
+     * @return Number of keys.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Doubles the capacity and adds every key again.
+     */
+    private void grow() {
+        long[] old = this.keys;
+        this.keys = new long[old.length * 2];
+        Arrays.fill(this.keys, FREE);
+        this.mask = this.keys.length - 1;
+        for (long key : old) {
+            if (key != FREE) {
+                int i = slot(key);
+                while (this.keys[i] != FREE) {
+                    i = (i + 1) & this.mask;
+                }
+                this.keys[i] = key;
+            }
+        }
+    }
+}
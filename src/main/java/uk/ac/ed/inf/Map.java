@@ -15,6 +15,10 @@ public class Map {
     private  List<Point> restaurantCoords;
     private List<Point> centralArea;
     private  List<Polygon> noFlyZones;
+    private NoFlyIndex noFlyIndex;
+    private PreparedPolygon centralAreaPolygon;
+    private VisibilityGraphPlanner visibilityGraphPlanner;
+    private DistanceField distanceField;
     private static final Point APPLETON = Point.fromLngLat(-3.186874, 55.944494 );
 
 
@@ -22,6 +26,7 @@ public class Map {
     private static final String SYMBOL_PROP = "marker-symbol";
     private static final String COLOR_PROP = "marker-color";
     private static List<Feature> featureList;
+    private String version;
 
 
     public Map(Restaurant[] restaurants, Area[] noFly,  CentralArea centralArea) throws IOException {
@@ -37,6 +42,77 @@ public class Map {
         return this.noFlyZones;
     }
 
+    /**
+     * Gets the spatial index over the edges of the NoFlyZones, built when the map is configured.
+     *
+     * @return Index of the NoFlyZone edges.
+     */
+    public NoFlyIndex getNoFlyIndex() {
+        return this.noFlyIndex;
+    }
+
+    /**
+     * Gets the Central Area prepared for containment tests, built when the map is configured.
+     *
+     * @return Central Area as a PreparedPolygon.
+     */
+    public PreparedPolygon getCentralArea() {
+        return this.centralAreaPolygon;
+    }
+
+    /**
+     * Gets the planner over the visibility graph of the NoFlyZones, Appleton Tower and the restaurants, built the
+     * first time it is asked for after the map is configured.
+     *
+     * @return Visibility graph planner of the map.
+     */
+    public synchronized VisibilityGraphPlanner getVisibilityGraphPlanner() {
+        if (this.visibilityGraphPlanner == null) {
+            List<LngLat> restaurants = new ArrayList<>(this.restaurantCoords.size());
+            for (Point restaurant : this.restaurantCoords) {
+                restaurants.add(new LngLat(restaurant.longitude(), restaurant.latitude()));
+            }
+            this.visibilityGraphPlanner = new VisibilityGraphPlanner(this, restaurants,
+                    new LngLat(APPLETON.longitude(), APPLETON.latitude()));
+        }
+        return this.visibilityGraphPlanner;
+    }
+
+    /**
+     * Gets the field of moves home to Appleton Tower over the Central Area, the NoFlyZones and the restaurants, flood
+     * filled the first time it is asked for after the map is configured.
+     *
+     * @return Distance field of the map.
+     */
+    public synchronized DistanceField getDistanceField() {
+        if (this.distanceField == null) {
+            List<LngLat> extent = new ArrayList<>();
+            for (Point restaurant : this.restaurantCoords) {
+                extent.add(new LngLat(restaurant.longitude(), restaurant.latitude()));
+            }
+            for (Point corner : this.centralArea) {
+                extent.add(new LngLat(corner.longitude(), corner.latitude()));
+            }
+            for (Polygon zone : this.noFlyZones) {
+                for (Point corner : zone.outer().coordinates()) {
+                    extent.add(new LngLat(corner.longitude(), corner.latitude()));
+                }
+            }
+            this.distanceField = new DistanceField(this, new LngLat(APPLETON.longitude(), APPLETON.latitude()),
+                    extent);
+        }
+        return this.distanceField;
+    }
+
+    /**
+     * Gets the version of the map, a hash of the NoFlyZones and the Central Area that changes whenever either does.
+     *
+     * @return Version of the map as a hex String.
+     */
+    public String getVersion() {
+        return this.version;
+    }
+
 
 
     public void configure(Restaurant[] restaurants, Area[] noFly, CentralArea centralArea) {
@@ -48,7 +124,8 @@ public class Map {
         appletonFt.addStringProperty(COLOR_PROP, "#fff00");
         featureList.add(appletonFt);
 
-        var centralFt = Feature.fromGeometry(asPolygon(centralArea.getCentralAreaPoints()));
+        this.centralArea = centralArea.getCentralAreaPoints();
+        var centralFt = Feature.fromGeometry(asPolygon(this.centralArea));
         centralFt.addStringProperty(NAME_PROP, "Central Area");
         centralFt.addStringProperty("fill", "none");
         featureList.add(centralFt);
@@ -73,16 +150,47 @@ public class Map {
             featureList.add(ft);
         }
 
+        this.noFlyIndex = new NoFlyIndex(this.noFlyZones);
+        synchronized (this) {
+            this.visibilityGraphPlanner = null;
+            this.distanceField = null;
+        }
+        this.centralAreaPolygon = new PreparedPolygon(centralArea.getCoords());
+
+        StringBuilder mapData = new StringBuilder();
+        for (Area zone : noFly) {
+            mapData.append(zone.name()).append(zone.coords()).append(';');
+        }
+        for (LngLat coord : centralArea.getCoords()) {
+            mapData.append(coord.lng()).append(',').append(coord.lat()).append(';');
+        }
+        this.version = PathCache.hash(mapData.toString());
+
     }
 
 
 
 
-    public String droneMap(List<Point> flightpath){
-        LineString asLineString = LineString.fromLngLats(flightpath);
-        Feature dronePath = Feature.fromGeometry(asLineString);
-        featureList.add(dronePath);
-        return FeatureCollection.fromFeature(dronePath).toJson();
+    /**
+     * Adds the flights of a day to the map written by {@link #writeMap()}.
+     *
+     * @param recorders Flight recorder of each drone, the index being the drone id.
+     */
+    public void addDronePaths(List<FlightRecorder> recorders){
+        featureList.addAll(dronePaths(recorders));
+    }
+
+    private List<Feature> dronePaths(List<FlightRecorder> recorders){
+        List<Feature> dronePaths = new ArrayList<>();
+        for (int droneId = 0; droneId < recorders.size(); droneId++) {
+            LineString asLineString = LineString.fromLngLats(new ArrayList<>(recorders.get(droneId).getPoints()));
+            Feature dronePath = Feature.fromGeometry(asLineString);
+            if (recorders.size() > 1) {
+                dronePath.addNumberProperty("droneId", droneId);
+            }
+            dronePaths.add(dronePath);
+        }
+        return dronePaths;
     }
 
     public static void writeMap() throws IOException {
@@ -0,0 +1,47 @@
+package uk.ac.ed.inf;
+
+import java.util.HashMap;
+
+/**
+ * Index of every pizza on the menus of the participating restaurants, built once so that validating an order looks
+ * each pizza up by name instead of scanning every menu. If two restaurants list a pizza with the same name, the first
+ * restaurant keeps it.
+ *
+ * @author s2107575
+ */
+public final class MenuIndex {
+    private final java.util.Map<String, Item> items;
+
+    /**
+     * Builds the index over the menus of the given restaurants.
+     *
+     * @param restaurants Restaurants participating in the service.
+     */
+    public MenuIndex(Restaurant[] restaurants) {
+        this.items = new HashMap<>();
+        for (Restaurant restaurant : restaurants) {
+            for (Menu menu : restaurant.getMenu()) {
+                this.items.putIfAbsent(menu.item(), new Item(restaurant, menu.price()));
+            }
+        }
+    }
+
+    /**
+     * Looks up a pizza by name.
+     *
+     * @param pizza Name of the pizza.
+     * @return The restaurant and price of the pizza, or null if no restaurant has it on its menu.
+     */
+    public Item lookup(String pizza) {
+        return this.items.get(pizza);
+    }
+
+    /**
+     * Record representing a pizza on the menu of a restaurant.
+     *
+     * @param restaurant Restaurant supplying the pizza.
+     * @param price      Price of the pizza in pence.
+     */
+    public record Item(Restaurant restaurant, int price) {
+    }
+}
@@ -0,0 +1,209 @@
+package uk.ac.ed.inf;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Run-wide performance metrics: a timer for each phase of planning and counters for the work done in the hot loops.
+ * Everything is kept in {@link LongAdder}s, so days planned at once on many threads can record without contending.
+ * Phase times are summed over every day and thread, so with days planned in parallel they can add up to more than the
+ * run took, and phases nest: path planning happens while routes are built or drones fly.
+ * A run ends by writing the metrics to metrics-{date}.json and, optionally, in the Prometheus text format to
+ * metrics-{date}.prom.
+ *
+ * @author s2107575
+ */
+public final class Metrics {
+    private static final LongAdder[] PHASE_NANOS = adders(Phase.values().length);
+    private static final LongAdder[] PHASE_CALLS = adders(Phase.values().length);
+    private static final LongAdder[] COUNTERS = adders(Counter.values().length);
+    private static volatile long runStart = System.nanoTime();
+
+    private Metrics() {
+    }
+
+    /**
+     * Phases of a run that are timed.
+     */
+    public enum Phase {
+        REST_FETCH, VALIDATION, ROUTE_BUILDING, PATH_PLANNING, FLIGHT, WRITE_DELIVERIES, WRITE_FLIGHTPATH, WRITE_DRONE;
+
+        /**
+         * Gets the name of the phase in the reports.
+         *
+         * @return Name of the phase in lower case.
+         */
+        public String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Work that is counted.
+     */
+    public enum Counter {
+        MOVES, LEGAL_MOVE_CHECKS, REJECTED_MOVES, NO_FLY_EDGE_TESTS, REST_REQUESTS, REST_BYTES, REST_LATENCY_NANOS;
+
+        /**
+         * Gets the name of the counter in the reports.
+         *
+         * @return Name of the counter in lower case.
+         */
+        public String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Clears every metric and starts timing the run again.
+     */
+    public static void reset() {
+        for (LongAdder adder : PHASE_NANOS) {
+            adder.reset();
+        }
+        for (LongAdder adder : PHASE_CALLS) {
+            adder.reset();
+        }
+        for (LongAdder adder : COUNTERS) {
+            adder.reset();
+        }
+        runStart = System.nanoTime();
+    }
+
+    /**
+     * Records one pass through a phase.
+     *
+     * @param phase   Phase that was timed.
+     * @param started Value of System.nanoTime() when the phase started.
+     */
+    public static void time(Phase phase, long started) {
+        PHASE_NANOS[phase.ordinal()].add(System.nanoTime() - started);
+        PHASE_CALLS[phase.ordinal()].increment();
+    }
+
+    /**
+     * Counts one unit of work.
+     *
+     * @param counter Counter to increment.
+     */
+    public static void increment(Counter counter) {
+        COUNTERS[counter.ordinal()].increment();
+    }
+
+    /**
+     * Counts several units of work.
+     *
+     * @param counter Counter to add to.
+     * @param amount  Units of work.
+     */
+    public static void add(Counter counter, long amount) {
+        COUNTERS[counter.ordinal()].add(amount);
+    }
+
+    /**
+     * Gets the value of a counter.
+     *
+     * @param counter Counter to read.
+     * @return Units of work counted since the last reset.
+     */
+    public static long get(Counter counter) {
+        return COUNTERS[counter.ordinal()].sum();
+    }
+
+    /**
+     * Gets the time spent in a phase.
+     *
+     * @param phase Phase to read.
+     * @return Nanoseconds spent in the phase since the last reset.
+     */
+    public static long nanos(Phase phase) {
+        return PHASE_NANOS[phase.ordinal()].sum();
+    }
+
+    /**
+     * Gets the number of passes through a phase.
+     *
+     * @param phase Phase to read.
+     * @return Number of times the phase was timed since the last reset.
+     */
+    public static long calls(Phase phase) {
+        return PHASE_CALLS[phase.ordinal()].sum();
+    }
+
+    /**
+     * Writes the metrics to metrics-{date}.json.
+     *
+     * @param date Date or range of dates of the run.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeReport(String date) throws IOException {
+        try (JsonGenerator generator = JsonOutput.open("metrics-" + date + ".json")) {
+            generator.writeStartObject();
+            generator.writeStringField("date", date);
+            generator.writeNumberField("runSeconds", seconds(System.nanoTime() - runStart));
+            generator.writeObjectFieldStart("phases");
+            for (Phase phase : Phase.values()) {
+                generator.writeObjectFieldStart(phase.key());
+                generator.writeNumberField("calls", calls(phase));
+                generator.writeNumberField("seconds", seconds(nanos(phase)));
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+            generator.writeObjectFieldStart("counters");
+            for (Counter counter : Counter.values()) {
+                generator.writeNumberField(counter.key(), get(counter));
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text format to metrics-{date}.prom, for a node exporter textfile collector.
+     *
+     * @param date Date or range of dates of the run.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writePrometheus(String date) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter("metrics-" + date + ".prom"))) {
+            writer.write("# HELP pizzadronz_run_seconds Wall clock time of the run.\n");
+            writer.write("# TYPE pizzadronz_run_seconds gauge\n");
+            writer.write("pizzadronz_run_seconds " + seconds(System.nanoTime() - runStart) + "\n");
+            writer.write("# HELP pizzadronz_phase_seconds_total Time spent in each phase, summed over threads.\n");
+            writer.write("# TYPE pizzadronz_phase_seconds_total counter\n");
+            for (Phase phase : Phase.values()) {
+                writer.write("pizzadronz_phase_seconds_total{phase=\"" + phase.key() + "\"} "
+                        + seconds(nanos(phase)) + "\n");
+            }
+            writer.write("# HELP pizzadronz_phase_calls_total Number of passes through each phase.\n");
+            writer.write("# TYPE pizzadronz_phase_calls_total counter\n");
+            for (Phase phase : Phase.values()) {
+                writer.write("pizzadronz_phase_calls_total{phase=\"" + phase.key() + "\"} " + calls(phase) + "\n");
+            }
+            for (Counter counter : Counter.values()) {
+                // Prometheus measures time in seconds.
+                boolean nanos = counter == Counter.REST_LATENCY_NANOS;
+                String name = "pizzadronz_" + (nanos ? "rest_latency_seconds" : counter.key()) + "_total";
+                writer.write("# TYPE " + name + " counter\n");
+                writer.write(name + " " + (nanos ? String.valueOf(seconds(get(counter))) : get(counter)) + "\n");
+            }
+        }
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
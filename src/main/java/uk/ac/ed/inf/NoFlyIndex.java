@@ -0,0 +1,203 @@
+package uk.ac.ed.inf;
+
+import com.mapbox.geojson.Point;
+import com.mapbox.geojson.Polygon;
+
+import java.awt.geom.Line2D;
+import java.util.List;
+
+/**
+ * Uniform grid over the edges of the NoFlyZones, built once per {@link Map}.
+ * Each edge is registered in every cell its bounding box touches, so a drone move only has to be tested against the
+ * edges in the few cells around it. Edges and cells are held in primitive arrays so that testing a move allocates
+ * nothing.
+ *
+ * @author s2107575
+ */
+public final class NoFlyIndex {
+    /**
+     * Default side of a grid cell, a move covers at most two cells along each axis.
+     */
+    private static final double DEFAULT_CELL_SIZE = LngLat.MOVE_DIST * 2;
+    private static final int MAX_CELLS = 1 << 20;
+
+    private final double[] fromLng;
+    private final double[] fromLat;
+    private final double[] toLng;
+    private final double[] toLat;
+
+    private final double minLng;
+    private final double minLat;
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+
+    /**
+     * Edges of cell c are cellEdges[cellStart[c]] up to cellEdges[cellStart[c + 1]].
+     */
+    private final int[] cellStart;
+    private final int[] cellEdges;
+
+    /**
+     * Builds the index over the edges of the given zones.
+     *
+     * @param zones NoFlyZones as GeoJson polygons, each with a closed outer ring.
+     */
+    public NoFlyIndex(List<Polygon> zones) {
+        int edgeCount = 0;
+        for (Polygon zone : zones) {
+            edgeCount += Math.max(0, zone.coordinates().get(0).size() - 1);
+        }
+        this.fromLng = new double[edgeCount];
+        this.fromLat = new double[edgeCount];
+        this.toLng = new double[edgeCount];
+        this.toLat = new double[edgeCount];
+
+        double lngMin = Double.MAX_VALUE;
+        double latMin = Double.MAX_VALUE;
+        double lngMax = -Double.MAX_VALUE;
+        double latMax = -Double.MAX_VALUE;
+        int e = 0;
+        for (Polygon zone : zones) {
+            List<Point> points = zone.coordinates().get(0);
+            for (int i = 0; i < points.size() - 1; i++) {
+                Point a = points.get(i);
+                Point b = points.get(i + 1);
+                this.fromLng[e] = a.longitude();
+                this.fromLat[e] = a.latitude();
+                this.toLng[e] = b.longitude();
+                this.toLat[e] = b.latitude();
+                lngMin = Math.min(lngMin, Math.min(a.longitude(), b.longitude()));
+                latMin = Math.min(latMin, Math.min(a.latitude(), b.latitude()));
+                lngMax = Math.max(lngMax, Math.max(a.longitude(), b.longitude()));
+                latMax = Math.max(latMax, Math.max(a.latitude(), b.latitude()));
+                e++;
+            }
+        }
+
+        if (edgeCount == 0) {
+            this.minLng = 0;
+            this.minLat = 0;
+            this.cellSize = DEFAULT_CELL_SIZE;
+            this.cols = 0;
+            this.rows = 0;
+            this.cellStart = new int[1];
+            this.cellEdges = new int[0];
+            return;
+        }
+
+        double size = DEFAULT_CELL_SIZE;
+        while (((lngMax - lngMin) / size + 1) * ((latMax - latMin) / size + 1) > MAX_CELLS) {
+            size *= 2;
+        }
+        this.minLng = lngMin;
+        this.minLat = latMin;
+        this.cellSize = size;
+        this.cols = (int) ((lngMax - lngMin) / size) + 1;
+        this.rows = (int) ((latMax - latMin) / size) + 1;
+
+        int[] counts = new int[this.cols * this.rows + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            forEachCell(i, counts, null);
+        }
+        this.cellStart = new int[counts.length];
+        for (int c = 1; c < counts.length; c++) {
+            this.cellStart[c] = this.cellStart[c - 1] + counts[c - 1];
+        }
+        this.cellEdges = new int[this.cellStart[counts.length - 1]];
+        int[] fill = new int[counts.length];
+        for (int i = 0; i < edgeCount; i++) {
+            forEachCell(i, fill, this.cellEdges);
+        }
+    }
+
+    /**
+     * Registers an edge in every cell its bounding box touches, either counting the edges per cell or writing the
+     * edge into the cell lists.
+     *
+     * @param edge   Index of the edge.
+     * @param counts Number of edges registered so far in each cell.
+     * @param edges  Cell lists to write the edge into, or null to only count.
+     */
+    private void forEachCell(int edge, int[] counts, int[] edges) {
+        int c0 = col(Math.min(this.fromLng[edge], this.toLng[edge]));
+        int c1 = col(Math.max(this.fromLng[edge], this.toLng[edge]));
+        int r0 = row(Math.min(this.fromLat[edge], this.toLat[edge]));
+        int r1 = row(Math.max(this.fromLat[edge], this.toLat[edge]));
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * this.cols + c;
+                if (edges != null) {
+                    edges[this.cellStart[cell] + counts[cell]] = edge;
+                }
+                counts[cell]++;
+            }
+        }
+    }
+
+    /**
+     * Checks if the segment between two positions crosses or touches the edge of any NoFlyZone.
+     *
+     * @param fromLng Longitude of the start of the segment.
+     * @param fromLat Latitude of the start of the segment.
+     * @param toLng   Longitude of the end of the segment.
+     * @param toLat   Latitude of the end of the segment.
+     * @return True if the segment intersects a NoFlyZone edge and false otherwise.
+     */
+    public boolean intersects(double fromLng, double fromLat, double toLng, double toLat) {
+        double lngLow = Math.min(fromLng, toLng);
+        double lngHigh = Math.max(fromLng, toLng);
+        double latLow = Math.min(fromLat, toLat);
+        double latHigh = Math.max(fromLat, toLat);
+        if (this.cols == 0 || lngHigh < this.minLng || latHigh < this.minLat
+                || lngLow > this.minLng + this.cols * this.cellSize || latLow > this.minLat + this.rows * this.cellSize) {
+            return false;
+        }
+
+        int c0 = col(lngLow);
+        int c1 = col(lngHigh);
+        int r0 = row(latLow);
+        int r1 = row(latHigh);
+        int tested = 0;
+        boolean intersects = false;
+        search:
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * this.cols + c;
+                for (int k = this.cellStart[cell]; k < this.cellStart[cell + 1]; k++) {
+                    int e = this.cellEdges[k];
+                    tested++;
+                    if (Line2D.linesIntersect(fromLng, fromLat, toLng, toLat,
+                            this.fromLng[e], this.fromLat[e], this.toLng[e], this.toLat[e])) {
+                        intersects = true;
+                        break search;
+                    }
+                }
+            }
+        }
+        if (tested > 0) {
+            Metrics.add(Metrics.Counter.NO_FLY_EDGE_TESTS, tested);
+        }
+        return intersects;
+    }
+
+    /**
+     * Gets the column of the grid containing a longitude, clamped to the grid.
+     *
+     * @param lng Longitude to find column for.
+     * @return Column index.
+     */
+    private int col(double lng) {
+        return Math.max(0, Math.min(this.cols - 1, (int) ((lng - this.minLng) / this.cellSize)));
+    }
+
+    /**
+     * Gets the row of the grid containing a latitude, clamped to the grid.
+     *
+     * @param lat Latitude to find row for.
+     * @return Row index.
+     */
+    private int row(double lat) {
+        return Math.max(0, Math.min(this.rows - 1, (int) ((lat - this.minLat) / this.cellSize)));
+    }
+}
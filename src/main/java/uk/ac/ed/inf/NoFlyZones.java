@@ -3,6 +3,7 @@ package uk.ac.ed.inf;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -55,4 +56,20 @@ public final class NoFlyZones {
         return noFlyAreas;
     }
 
+    /**
+     * Starts retrieving the coordinates for the NoFlyZones from the REST server without waiting for them, unless they
+     * have already been retrieved.
+     *
+     * @return Future completed with the NoFlyZones represented by Area objects.
+     */
+    public CompletableFuture<Area[]> getNoFlyZoneCoordinatesAsync() {
+        if (noFlyAreas != null) {
+            return CompletableFuture.completedFuture(noFlyAreas);
+        }
+        return new RestClient(baseURL).fetchAsync("/noFlyZones", Area[].class).thenApply(areas -> {
+            noFlyAreas = areas;
+            return areas;
+        });
+    }
+
 }
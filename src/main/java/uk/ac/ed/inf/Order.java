@@ -3,7 +3,6 @@ package uk.ac.ed.inf;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -14,7 +13,10 @@ import java.util.List;
  * @author fionahamlin
  */
 public class Order {
-    private static final Integer DELIVERY_FEE = 100;
+    /**
+     * Fee in pence added to the price of the pizzas of every order.
+     */
+    public static final int DELIVERY_FEE = 100;
     private final String orderNo;
     private final String orderDate;
     private final String customer;
@@ -63,98 +65,58 @@ public class Order {
         return Arrays.asList(this.orderItems);
     }
 
-
     /**
-     * Method calculates the total cost to deliver a valid pizza order in pence from participating restaurants.
-     * It will also identify if list of pizzas in order is not a valid order and throw and error.
+     * Gets the pizzas ordered in current order without copying them.
      *
-     * @param restaurants   List of @class Restaurant objects and their menus representing participating restaurants.
-     * @param pizzasOrdered Pizzas in order as String ArrayList
-     * @return The total cost of order and delivery in pence.
-     * @throws InvalidPizzaCombinationException If pizza order is invalid due to number of pizzas or due to being
-     *                                          ordered from different restaurants.
+     * @return Names of the pizzas ordered.
      */
-
-
-    public int getDeliveryCost(Restaurant[] restaurants, List<String> pizzasOrdered) throws InvalidPizzaCombinationException {
-        /**
-         * Preset base delivery fee
-         */
-        int deliveryFee = 100;
-        int totalCost = 0;
-
-        ArrayList<String> pizzasLeft = new ArrayList<>(List.copyOf(pizzasOrdered));
-
-        /**
-         * Add price of ordered pizzas to total cost.
-         */
-        if (pizzasOrdered.size() > 0 && pizzasOrdered.size() < 5) {
-            for (Restaurant restaurant : restaurants) {
-                Menu[] menu = restaurant.getMenu();
-                for (Menu restaurantMenu : menu) {
-                    for (String pizza : pizzasOrdered) {
-                        if (restaurantMenu.item().equals(pizza)) {
-                            totalCost += restaurantMenu.price();
-                            pizzasLeft.remove(pizza);
-                            if (this.orderRestaurant == null) {
-                                this.orderRestaurant = restaurant;
-                            }
-                        }
-                    }
-                    if (pizzasLeft.isEmpty()) {
-                        break;
-                    }
-                }
-
-                /**
-                 * Throw @InvalidPizzaCombinationException if pizzas are ordered from multiple restaurants or are not
-                 * on the menu of any participating restaurant.
-                 */
-                if (!pizzasLeft.isEmpty() && pizzasLeft.size() < pizzasOrdered.size()) {
-                    this.deliveryCost = 0;
-                    this.orderOutcome = OrderOutcome.InvalidPizzaCombinationMultipleSuppliers;
-                    throw new InvalidPizzaCombinationException("All pizzas must be ordered from the same restaurant");
-                }
-            }
-
-        }
-        /**
-         * Throw @InvalidPizzaCombinationException of the number of pizzas is not between one and four.
-         */
-        else {
-            this.orderOutcome = OrderOutcome.InvalidPizzaCount;
-            this.deliveryCost = 0;
-            throw new InvalidPizzaCombinationException("You can order between 1 and 4 pizzas");
-        }
-        this.deliveryCost = (totalCost + deliveryFee);
-        return totalCost + deliveryFee;
+    public String[] getOrderItems() {
+        return this.orderItems;
     }
 
 
-    @Override
-    public String toString() {
-        return "Order{" + "orderNo=" + orderNo + ", orderDate=" + orderDate + ", customer='" + customer + '\'' + ", creditCardNumber='" + creditCardNumber + '\'' + ", creditCardExpiry=" + creditCardExpiry + ", cvv=" + cvv + ", priceTotalInPence=" + priceTotalInPence + ", orderItems=" + Arrays.toString(orderItems) + '}';
-    }
-
     /**
-     * Gets the month of the order for credit card validation.
+     * Method calculates the total cost to deliver a valid pizza order in pence from participating restaurants, looking
+     * each pizza up in a {@link MenuIndex} in a single pass over the order.
+     * It will also identify if list of pizzas in order is not a valid order, set the outcome and throw and error.
      *
-     * @return Month of order as Integer.
+     * @param menuIndex Index of the menus of the participating restaurants.
+     * @return The total cost of order and delivery in pence.
+     * @throws InvalidPizzaCombinationException If pizza order is invalid due to number of pizzas, due to a pizza not
+     *                                          being on any menu or due to being ordered from different restaurants.
      */
-    private Integer getOrderMonth() {
-        return Integer.parseInt(this.orderDate.substring(5, 7));
+    public int getDeliveryCost(MenuIndex menuIndex) throws InvalidPizzaCombinationException {
+        ValidationResult priced = new OrderValidator(menuIndex).price(this);
+        this.deliveryCost = priced.costInPence();
+        if (!priced.isValid()) {
+            this.orderOutcome = priced.outcome();
+            throw new InvalidPizzaCombinationException(switch (priced.outcome()) {
+                case InvalidPizzaCount -> "You can order between 1 and 4 pizzas";
+                case InvalidPizzaNotDefined -> "All pizzas must be on the menu of a restaurant";
+                default -> "All pizzas must be ordered from the same restaurant";
+            });
+        }
+        this.orderRestaurant = priced.supplier();
+        return this.deliveryCost;
     }
 
     /**
-     * Gets year of the order for credit card validation.
+     * Sets the outcome, restaurant and cost of the order from the result of validating it.
      *
-     * @return Last two digits of year as Integer.
+     * @param result Result of validating this order.
      */
-    private Integer getOrderYear() {
-        return Integer.parseInt(this.orderDate.substring(2, 4));
+    public void applyValidation(ValidationResult result) {
+        this.orderOutcome = result.outcome();
+        this.orderRestaurant = result.supplier();
+        this.deliveryCost = result.costInPence();
     }
 
 
+    @Override
+    public String toString() {
+        return "Order{" + "orderNo=" + orderNo + ", orderDate=" + orderDate + ", customer='" + customer + '\'' + ", creditCardNumber='" + creditCardNumber + '\'' + ", creditCardExpiry=" + creditCardExpiry + ", cvv=" + cvv + ", priceTotalInPence=" + priceTotalInPence + ", orderItems=" + Arrays.toString(orderItems) + '}';
+    }
+
     /**
      * Checks the expiry date of order. Checks that expiry date is in valid form and that date of card expiry is not before
      * order date.
@@ -162,31 +124,20 @@ public class Order {
      * @return True if expiry date is valid, false otherwise.
      */
     public boolean checkExpiry() {
-        Integer month;
-        Integer year;
-        Integer orderYear = getOrderYear();
-        Integer orderMonth = getOrderMonth();
-        boolean valid = false;
-        if (this.creditCardExpiry.contains("/")) {
-            String[] monYr = this.creditCardExpiry.split("/");
-            if (monYr.length == 2) {
-                String mon = monYr[0];
-                String yr = monYr[1];
-                if (mon.length() == 2 && yr.length() == 2) {
-                    month = Integer.parseInt(mon);
-                    year = Integer.parseInt(yr);
-                    if ((year == orderYear && month >= orderMonth) || (year > orderYear && month <= 12)) {
-                        valid = true;
-                    }
-                }
-            }
-        }
-
-        if (!valid) {
+        if (!hasValidExpiry()) {
             this.orderOutcome = OrderOutcome.InvalidExpiryDate;
+            return false;
         }
-        return valid;
+        return true;
+    }
 
+    /**
+     * Checks the expiry date of order without setting the outcome of the order.
+     *
+     * @return True if expiry date is valid, false otherwise.
+     */
+    public boolean hasValidExpiry() {
+        return CardValidator.isValidExpiry(this.creditCardExpiry, this.orderDate);
     }
 
 
@@ -196,13 +147,22 @@ public class Order {
      * @return True of cvv is valid, false otherwise.
      */
     public boolean checkCvv() {
-        if (this.cvv.length() != 3 || !allDigits(this.cvv)) {
+        if (!hasValidCvv()) {
             this.orderOutcome = OrderOutcome.InvalidCvv;
             return false;
         }
         return true;
     }
 
+    /**
+     * Checks that the cvv is valid without setting the outcome of the order.
+     *
+     * @return True of cvv is valid, false otherwise.
+     */
+    public boolean hasValidCvv() {
+        return CardValidator.isValidCvv(this.cvv);
+    }
+
     /**
      * Checks that all characters in a String are digits between 0 and 9 for use in credit card validation.
      *
@@ -210,13 +170,7 @@ public class Order {
      * @return True if all characters are digits, false otherwise.
      */
     public boolean allDigits(String numToCheck) {
-        List<Character> digits = List.of('0', '1', '2', '3', '4', '5', '6', '7', '8', '9');
-        for (int i = 0; i < numToCheck.length(); i++) {
-            if (!digits.contains(numToCheck.charAt(i))) {
-                return false;
-            }
-        }
-        return true;
+        return CardValidator.isAllDigits(numToCheck);
     }
 
     /**
@@ -225,14 +179,7 @@ public class Order {
      * @return True if card number is valid, false otherwise.
      */
     public boolean checkCardNumber() {
-        if (creditCardNumber == null || creditCardNumber.length() != 16 || !allDigits(creditCardNumber)) {
-            orderOutcome = OrderOutcome.InvalidCardNumber;
-
-            return false;
-        } else if (!isMasterCardOrVisa(Character.getNumericValue(creditCardNumber.charAt(0)), Integer.parseInt(creditCardNumber.substring(0, 2)), Integer.parseInt(creditCardNumber.substring(0, 4)))) {
-            orderOutcome = OrderOutcome.InvalidCardNumber;
-            return false;
-        } else if (!checkCardByLuhn()) {
+        if (!hasValidCardNumber()) {
             orderOutcome = OrderOutcome.InvalidCardNumber;
             return false;
         }
@@ -241,37 +188,12 @@ public class Order {
     }
 
     /**
-     * Checks that a credit card number is a MasterCard or Visa by checking one of its prefixes fall within  a standard range.
+     * Checks that a credit card number is valid without setting the outcome of the order.
      *
-     * @param first     First digit of card for verification
-     * @param firstTwo  First two digits of card for verification
-     * @param firstFour First four digits of card for verification
-     * @return
-     */
-    private boolean isMasterCardOrVisa(Integer first, Integer firstTwo, Integer firstFour) {
-        return (firstTwo >= 51 && firstTwo <= 55) || (firstFour >= 2221 && firstFour <= 2720) || (first == 4);
-    }
-
-
-    /**
-     * Checks if credit card is valid via the luhn algorithm
-     * Adapted from: https://www.geeksforgeeks.org/luhn-algorithm/
-     *
-     * @return True if algorithm finds number valid
+     * @return True if card number is valid, false otherwise.
      */
-    private boolean checkCardByLuhn() {
-        int nSum = 0;
-        boolean second = false;
-        for (int i = 15; i >= 0; i--) {
-            int d = this.creditCardNumber.charAt(i);
-            if (second) {
-                d = d * 2;
-                nSum += d / 10;
-                nSum += d % 10;
-                second = !second;
-            }
-        }
-        return ((nSum & 10) == 0);
+    public boolean hasValidCardNumber() {
+        return CardValidator.isValidCardNumber(this.creditCardNumber);
     }
 
 
@@ -291,6 +213,10 @@ public class Order {
         return this.orderNo;
     }
 
+    public String getOrderDate() {
+        return this.orderDate;
+    }
+
     public Integer deliveryCostInPence() {
         return this.deliveryCost;
     }
@@ -0,0 +1,117 @@
+package uk.ac.ed.inf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validates orders against the menus of the participating restaurants without changing them.
+ * Every check only reads the order and a shared {@link MenuIndex}, and the outcome, supplier and cost come back as a
+ * {@link ValidationResult}, so any number of orders can be validated in parallel.
+ *
+ * @author s2107575
+ */
+public final class OrderValidator {
+    private final MenuIndex menuIndex;
+
+    /**
+     * Validator for the menus of the given restaurants.
+     *
+     * @param restaurants Restaurants participating in the service.
+     */
+    public OrderValidator(Restaurant[] restaurants) {
+        this(new MenuIndex(restaurants));
+    }
+
+    /**
+     * Validator for menus that have already been indexed.
+     *
+     * @param menuIndex Index of the menus of the participating restaurants.
+     */
+    public OrderValidator(MenuIndex menuIndex) {
+        this.menuIndex = menuIndex;
+    }
+
+    /**
+     * Validates an order: the card number, cvv and expiry date first, then the pizzas and finally the total, which is
+     * invalid if the order has none.
+     *
+     * @param order Order to validate.
+     * @return Result of the validation.
+     */
+    public ValidationResult validate(Order order) {
+        if (!order.hasValidCardNumber()) {
+            return new ValidationResult(order, OrderOutcome.InvalidCardNumber, null, 0);
+        }
+        if (!order.hasValidCvv()) {
+            return new ValidationResult(order, OrderOutcome.InvalidCvv, null, 0);
+        }
+        if (!order.hasValidExpiry()) {
+            return new ValidationResult(order, OrderOutcome.InvalidExpiryDate, null, 0);
+        }
+        ValidationResult priced = price(order);
+        if (priced.isValid() && (order.getPriceTotalInPence() == null
+                || priced.costInPence() != order.getPriceTotalInPence())) {
+            return priced.withOutcome(OrderOutcome.InvalidTotal);
+        }
+        return priced;
+    }
+
+    /**
+     * Validates orders across every core, keeping their order.
+     *
+     * @param orders Orders to validate.
+     * @return Result of each order, in the order of the orders.
+     */
+    public List<ValidationResult> validateAll(List<Order> orders) {
+        return orders.parallelStream().map(this::validate).toList();
+    }
+
+    /**
+     * Prices the pizzas of an order in a single pass over its items, finding the restaurant supplying them.
+     *
+     * @param order Order to price.
+     * @return Result with the supplier and cost if the pizzas are a valid combination, otherwise with the outcome
+     * explaining why not: a pizza count outside one to four, a pizza on no menu, or pizzas from several restaurants.
+     */
+    public ValidationResult price(Order order) {
+        String[] items = order.getOrderItems();
+        if (items == null || items.length < 1 || items.length > 4) {
+            return new ValidationResult(order, OrderOutcome.InvalidPizzaCount, null, 0);
+        }
+        int totalCost = 0;
+        Restaurant supplier = null;
+        boolean multipleSuppliers = false;
+        for (String pizza : items) {
+            MenuIndex.Item item = this.menuIndex.lookup(pizza);
+            if (item == null) {
+                return new ValidationResult(order, OrderOutcome.InvalidPizzaNotDefined, null, 0);
+            }
+            if (supplier == null) {
+                supplier = item.restaurant();
+            } else if (supplier != item.restaurant()) {
+                multipleSuppliers = true;
+            }
+            totalCost += item.price();
+        }
+        if (multipleSuppliers) {
+            return new ValidationResult(order, OrderOutcome.InvalidPizzaCombinationMultipleSuppliers, null, 0);
+        }
+        return new ValidationResult(order, OrderOutcome.ValidButNotDelivered, supplier, totalCost + Order.DELIVERY_FEE);
+    }
+
+    /**
+     * Keeps the results of the orders that passed validation.
+     *
+     * @param results Results of validation.
+     * @return Results of the valid orders, in the same order.
+     */
+    public static List<ValidationResult> valid(List<ValidationResult> results) {
+        List<ValidationResult> valid = new ArrayList<>();
+        for (ValidationResult result : results) {
+            if (result.isValid()) {
+                valid.add(result);
+            }
+        }
+        return valid;
+    }
+}
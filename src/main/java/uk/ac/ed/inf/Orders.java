@@ -5,9 +5,12 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Class representing collections of orders.
@@ -16,6 +19,16 @@ import java.util.List;
  */
 public class Orders {
     private static final String DEFAULT_ENDPOINT = "https://ilp-rest.azurewebsites.net";
+
+    /**
+     * First day served by the REST server.
+     */
+    public static final LocalDate FIRST_DAY = LocalDate.of(2023, 1, 1);
+
+    /**
+     * Last day served by the REST server.
+     */
+    public static final LocalDate LAST_DAY = LocalDate.of(2023, 5, 31);
     private static URL baseUrl;
     private static List<Order> allOrders;
 
@@ -72,8 +85,8 @@ public class Orders {
         SimpleDateFormat sdf = new SimpleDateFormat(format);
 
 
-        Date startRange = sdf.parse("2023-01-01");
-        Date endRange = sdf.parse(("2023-05-31"));
+        Date startRange = sdf.parse(FIRST_DAY.toString());
+        Date endRange = sdf.parse(LAST_DAY.toString());
 
         if (myDate.before(startRange) || myDate.after(endRange)) {
             throw new RuntimeException("Given date out of range please enter day between 1 January 2023 and " +
@@ -86,5 +99,47 @@ public class Orders {
 
     }
 
+    /**
+     * Starts retrieving all orders for a given day from REST server without waiting for them. Checks that the date
+     * given is serviced by server.
+     *
+     * @param date Given date.
+     * @return Future completed with the Order objects that were placed that day.
+     */
+    public CompletableFuture<List<Order>> getOrdersDayAsync(LocalDate date) {
+        if (date.isBefore(FIRST_DAY) || date.isAfter(LAST_DAY)) {
+            return CompletableFuture.failedFuture(new RuntimeException("Given date out of range please enter day " +
+                    "between 1 January 2023 and 31 May 2023"));
+        }
+        return new RestClient(baseUrl).fetchAsync("/orders/" + date, Order[].class).thenApply(Arrays::asList);
+    }
+
+    /**
+     * Starts streaming all orders for a given day from REST server, handing each order to a consumer as soon as it
+     * has been read. Checks that the date given is serviced by server.
+     *
+     * @param date     Given date.
+     * @param consumer Consumer of the orders, called in the order the server lists them from a single thread.
+     * @return Future completed with the number of orders once every order has been consumed.
+     */
+    public CompletableFuture<Integer> streamOrdersDay(LocalDate date, Consumer<Order> consumer) {
+        if (date.isBefore(FIRST_DAY) || date.isAfter(LAST_DAY)) {
+            return CompletableFuture.failedFuture(new RuntimeException("Given date out of range please enter day " +
+                    "between 1 January 2023 and 31 May 2023"));
+        }
+        return new RestClient(baseUrl).streamAsync("/orders/" + date, Order.class, consumer);
+    }
+
+    /**
+     * Starts streaming all orders held by REST server, handing each order to a consumer as soon as it has been read
+     * instead of keeping them all.
+     *
+     * @param consumer Consumer of the orders, called in the order the server lists them from a single thread.
+     * @return Future completed with the number of orders once every order has been consumed.
+     */
+    public CompletableFuture<Integer> streamAllOrders(Consumer<Order> consumer) {
+        return new RestClient(baseUrl).streamAsync("/orders", Order.class, consumer);
+    }
+
 
-}
\ No newline at end of file
+}
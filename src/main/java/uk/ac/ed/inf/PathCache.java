@@ -0,0 +1,286 @@
+package uk.ac.ed.inf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of planned round trips between Appleton Tower and each restaurant.
+ * Trips are held in memory and, if a directory is given, written to disk so that later runs on the same map can replay
+ * them instead of searching. Trips are keyed by the version of the {@link Map} and the two endpoints, so a change to
+ * the NoFlyZones or the Central Area never replays a stale path. Trips are planned with {@link AStarPlanner} unless
+ * another {@link PathPlanner.Kind} is given, whose trips are then cached under keys of their own.
+ *
+ * @author s2107575
+ */
+public class PathCache {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private final java.util.Map<String, Trip> trips;
+    private final Path directory;
+    private final PathPlanner.Kind planner;
+
+    /**
+     * Cache holding trips in memory only.
+     */
+    public PathCache() {
+        this(null);
+    }
+
+    /**
+     * Cache holding trips in memory and in the given directory.
+     *
+     * @param directory Directory to read and write cached trips, or null to keep them in memory only.
+     */
+    public PathCache(Path directory) {
+        this(directory, PathPlanner.Kind.ASTAR);
+    }
+
+    /**
+     * Cache holding trips in memory and in the given directory, planning them with the given kind of planner.
+     *
+     * @param directory Directory to read and write cached trips, or null to keep them in memory only.
+     * @param planner   Kind of planner that trips missing from the cache are planned with.
+     */
+    public PathCache(Path directory, PathPlanner.Kind planner) {
+        this.trips = new ConcurrentHashMap<>();
+        this.directory = directory;
+        this.planner = planner;
+    }
+
+    /**
+     * Gets the round trip from home to a restaurant and back, planning it with the cache's planner if it is not in
+     * memory or on disk.
+     *
+     * @param map        Map representing the PizzaDronz area of service and its elements.
+     * @param home       Position trips start and end at.
+     * @param restaurant Position of the restaurant.
+     * @return The planned trip, or null if no path could be planned.
+     */
+    public Trip getTrip(Map map, LngLat home, LngLat restaurant) {
+        String key = key(map, home, restaurant);
+        if (this.planner != PathPlanner.Kind.ASTAR) {
+            key += "-" + this.planner.name().toLowerCase();
+        }
+        Trip trip = this.trips.get(key);
+        if (trip == null) {
+            trip = readTrip(key);
+            if (trip == null) {
+                trip = Trip.plan(map, home, restaurant, this.planner.create(map));
+                if (trip == null) {
+                    return null;
+                }
+                writeTrip(key, trip);
+            }
+            this.trips.put(key, trip);
+        }
+        return trip;
+    }
+
+    /**
+     * Computes the key of a trip as a hash of the map version and the endpoints.
+     *
+     * @param map        Map the trip is planned on.
+     * @param home       Position trip starts and ends at.
+     * @param restaurant Position of the restaurant.
+     * @return Hex string of the key.
+     */
+    public static String key(Map map, LngLat home, LngLat restaurant) {
+        return hash(map.getVersion() + "|" + home.lng() + "," + home.lat() + "|" + restaurant.lng() + ","
+                + restaurant.lat());
+    }
+
+    /**
+     * Hashes a String with SHA-256.
+     *
+     * @param text Text to hash.
+     * @return Hex string of the hash.
+     */
+    public static String hash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads a trip from the cache directory.
+     *
+     * @param key Key of the trip.
+     * @return The trip, or null if there is no directory or it does not hold the trip.
+     */
+    private Trip readTrip(String key) {
+        if (this.directory == null) {
+            return null;
+        }
+        Path file = this.directory.resolve(key + ".json");
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return MAPPER.readValue(file.toFile(), Trip.class);
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable cached path " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes a trip to the cache directory if there is one.
+     *
+     * @param key  Key of the trip.
+     * @param trip Trip to write.
+     */
+    private void writeTrip(String key, Trip trip) {
+        if (this.directory == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(this.directory);
+            Path tmp = Files.createTempFile(this.directory, key, ".tmp");
+            MAPPER.writeValue(tmp.toFile(), trip);
+            Files.move(tmp, this.directory.resolve(key + ".json"), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write cached path " + key + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Record representing a round trip from home to a restaurant and back.
+     *
+     * @param outbound Directions of the moves from home to the restaurant.
+     * @param inbound  Directions of the moves from where the outbound moves end back to home.
+     */
+    public record Trip(List<Direction> outbound, List<Direction> inbound) {
+
+        /**
+         * Plans a round trip with {@link AStarPlanner}.
+         *
+         * @param map        Map representing the PizzaDronz area of service and its elements.
+         * @param home       Position trip starts and ends at.
+         * @param restaurant Position of the restaurant.
+         * @return The planned trip, or null if either leg could not be planned.
+         */
+        public static Trip plan(Map map, LngLat home, LngLat restaurant) {
+            return plan(map, home, restaurant, new AStarPlanner(map));
+        }
+
+        /**
+         * Plans a round trip with the given planner.
+         *
+         * @param map        Map representing the PizzaDronz area of service and its elements.
+         * @param home       Position trip starts and ends at.
+         * @param restaurant Position of the restaurant.
+         * @param planner    Planner of both legs.
+         * @return The planned trip, or null if either leg could not be planned.
+         */
+        public static Trip plan(Map map, LngLat home, LngLat restaurant, PathPlanner planner) {
+            long started = System.nanoTime();
+            try {
+                return planLegs(home, restaurant, planner);
+            } finally {
+                Metrics.time(Metrics.Phase.PATH_PLANNING, started);
+            }
+        }
+
+        private static Trip planLegs(LngLat home, LngLat restaurant, PathPlanner planner) {
+            List<Direction> outbound = planner.plan(home, restaurant, false);
+            if (outbound == null) {
+                return null;
+            }
+            LngLat arrival = home;
+            for (Direction d : outbound) {
+                arrival = arrival.nextPosition(d);
+            }
+            List<Direction> inbound = planner.plan(arrival, home, true);
+            if (inbound == null) {
+                return null;
+            }
+            return new Trip(new ArrayList<>(outbound), new ArrayList<>(inbound));
+        }
+
+        /**
+         * Computes the number of moves of the trip, including the hover at the restaurant and at home.
+         *
+         * @return Number of moves.
+         */
+        public int moves() {
+            return this.outbound.size() + this.inbound.size() + 2;
+        }
+
+        /**
+         * Adapts the trip to a drone starting from the given position, which may be slightly off the position the
+         * trip was planned from. Each cached move is replayed while it is legal, the leg ends as soon as the drone is
+         * close to its target, and the rest of a leg that falls short is planned with {@link AStarPlanner} on the way
+         * out and with the {@link DistanceField} of the map on the way home.
+         *
+         * @param map        Map representing the PizzaDronz area of service and its elements.
+         * @param start      Position the drone starts the trip from.
+         * @param home       Position the drone returns to.
+         * @param restaurant Position of the restaurant.
+         * @return The trip as it will be flown from the start, or null if either leg could not be planned.
+         */
+        public Trip replayFrom(Map map, LngLat start, LngLat home, LngLat restaurant) {
+            List<Direction> out = replayLeg(map, new AStarPlanner(map), start, this.outbound, restaurant, false);
+            if (out == null) {
+                return null;
+            }
+            LngLat arrival = start;
+            for (Direction d : out) {
+                arrival = arrival.nextPosition(d);
+            }
+            List<Direction> in = replayLeg(map, (from, to, onReturn) -> map.getDistanceField().plan(from, to, onReturn),
+                    arrival, this.inbound, home, true);
+            if (in == null) {
+                return null;
+            }
+            return new Trip(out, in);
+        }
+
+        /**
+         * Replays the moves of one leg from a start position.
+         *
+         * @param map      Map representing the PizzaDronz area of service and its elements.
+         * @param planner  Planner for the rest of the leg if the cached moves fall short.
+         * @param start    Position the leg starts from.
+         * @param cached   Cached moves of the leg.
+         * @param target   Position the leg ends close to.
+         * @param onReturn True if the drone is returning from an order.
+         * @return Moves of the leg, or null if it could not be planned.
+         */
+        private static List<Direction> replayLeg(Map map, PathPlanner planner, LngLat start, List<Direction> cached,
+                                                 LngLat target, boolean onReturn) {
+            List<Direction> moves = new ArrayList<>(cached.size());
+            LngLat position = start;
+            for (Direction d : cached) {
+                LngLat next = position.nextPosition(d);
+                if (!DronePos.isLegalMove(map, position, next, onReturn)) {
+                    break;
+                }
+                moves.add(d);
+                position = next;
+                if (position.closeTo(target)) {
+                    return moves;
+                }
+            }
+            List<Direction> rest = planner.plan(position, target, onReturn);
+            if (rest == null) {
+                return null;
+            }
+            moves.addAll(rest);
+            return moves;
+        }
+    }
+}
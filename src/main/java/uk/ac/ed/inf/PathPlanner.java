@@ -0,0 +1,62 @@
+package uk.ac.ed.inf;
+
+import java.util.List;
+
+/**
+ * Plans the moves taking the drone from one position to another, each move being one of the 16 {@link Direction}s
+ * and legal under {@link DronePos#isLegalMove}.
+ *
+ * @author s2107575
+ */
+public interface PathPlanner {
+
+    /**
+     * Finds a sequence of moves taking the drone from its position to within {@link LngLat#TOLERANCE} of the target.
+     *
+     * @param start    Position the drone starts from.
+     * @param target   Position the drone is flying to.
+     * @param onReturn True if the drone is returning from an order, so must not leave the Central Area once inside it.
+     * @return Directions of each move in order, or null if no path was found.
+     */
+    List<Direction> plan(LngLat start, LngLat target, boolean onReturn);
+
+    /**
+     * The planners trips can be planned with.
+     */
+    enum Kind {
+        /**
+         * {@link AStarPlanner}, searching the move lattice for the fewest moves.
+         */
+        ASTAR,
+        /**
+         * {@link VisibilityGraphPlanner}, following the shortest path around the NoFlyZones with lattice moves.
+         */
+        VISIBILITY;
+
+        /**
+         * Gets the planner of this kind for a map.
+         *
+         * @param map Map representing the PizzaDronz area of service and its elements.
+         * @return The planner.
+         */
+        public PathPlanner create(Map map) {
+            return this == VISIBILITY ? map.getVisibilityGraphPlanner() : new AStarPlanner(map);
+        }
+
+        /**
+         * Gets the planner kind with the given name, ignoring case.
+         *
+         * @param name Name of the planner, astar or visibility.
+         * @return The planner kind.
+         * @throws IllegalArgumentException If there is no planner with the name.
+         */
+        public static Kind forName(String name) {
+            for (Kind kind : values()) {
+                if (kind.name().equalsIgnoreCase(name)) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("unknown planner " + name + ", expected astar or visibility");
+        }
+    }
+}
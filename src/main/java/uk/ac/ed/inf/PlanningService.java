@@ -0,0 +1,249 @@
+package uk.ac.ed.inf;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-running planning service on the JDK's built-in HTTP server. The {@link DeliveryPlanner} it is given keeps the
+ * Map, Central Area, NoFlyZones, menu index and planned trips warm between requests, so a request only pays for
+ * planning its orders and not for starting a JVM, fetching the REST data or compiling the hot paths again.
+ * <p>
+ * {@value #PLAN_PATH} plans either the day given as {@code GET /plan?date=YYYY-MM-DD}, streaming its orders from the
+ * REST server, or the JSON array of orders posted to it in the format of the REST server. Both answer with a JSON
+ * object holding the deliveries and flightpath records that would have been written to the day's files.
+ * Each request is handled on its own virtual thread when the JVM has them, and on a cached thread pool otherwise.
+ *
+ * @author s2107575
+ */
+public class PlanningService {
+    /**
+     * Path of the planning endpoint.
+     */
+    public static final String PLAN_PATH = "/plan";
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final DeliveryPlanner planner;
+    private final Orders orders;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Service planning with the given planner.
+     *
+     * @param planner Planner holding the map and restaurants, shared by every request.
+     * @param orders  Orders of the REST server, used to plan a day given by its date.
+     */
+    public PlanningService(DeliveryPlanner planner, Orders orders) {
+        this.planner = planner;
+        this.orders = orders;
+    }
+
+    /**
+     * Starts serving requests.
+     *
+     * @param address Address to listen on, with port 0 to pick any free port.
+     * @return Address the service is listening on.
+     * @throws IOException If the address cannot be bound.
+     */
+    public synchronized InetSocketAddress start(InetSocketAddress address) throws IOException {
+        if (this.server != null) {
+            throw new IllegalStateException("The planning service is already running");
+        }
+        HttpServer httpServer = HttpServer.create(address, 0);
+        this.executor = requestExecutor();
+        httpServer.setExecutor(this.executor);
+        httpServer.createContext(PLAN_PATH, this::handle);
+        httpServer.start();
+        this.server = httpServer;
+        return httpServer.getAddress();
+    }
+
+    /**
+     * Stops serving requests, waiting for the requests being handled to finish.
+     *
+     * @param delaySeconds Longest time to wait for the requests being handled, in seconds.
+     */
+    public synchronized void stop(int delaySeconds) {
+        if (this.server != null) {
+            this.server.stop(delaySeconds);
+            this.executor.shutdown();
+            this.server = null;
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Creates the executor handling each request on its own virtual thread. Virtual threads are looked up reflectively
+     * since the project targets a JDK that may not have them, falling back to a cached thread pool.
+     *
+     * @return Executor to handle the requests on.
+     */
+    static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Handles a request to the planning endpoint, answering 400 for a request that cannot be planned, 404 for any
+     * other path, 405 for any other method and 500 if planning fails.
+     *
+     * @param exchange Request and its response.
+     * @throws IOException If the response cannot be sent.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!PLAN_PATH.equals(exchange.getRequestURI().getPath())) {
+                error(exchange, 404, "Unknown path " + exchange.getRequestURI().getPath());
+                return;
+            }
+            DeliveryPlanner.DayPlan plan;
+            try {
+                switch (exchange.getRequestMethod()) {
+                    case "GET" -> plan = planDay(exchange.getRequestURI().getQuery());
+                    case "POST" -> plan = planOrders(exchange.getRequestBody());
+                    default -> {
+                        exchange.getResponseHeaders().add("Allow", "GET, POST");
+                        error(exchange, 405, "Method " + exchange.getRequestMethod() + " not allowed");
+                        return;
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                error(exchange, 400, e.getMessage());
+                return;
+            } catch (RuntimeException e) {
+                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                System.err.println("Could not plan request " + exchange.getRequestURI() + ": " + cause);
+                error(exchange, 500, "Could not plan: " + cause.getMessage());
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, 0);
+            try (JsonGenerator generator = JsonOutput.generator(exchange.getResponseBody())) {
+                write(generator, plan);
+            }
+        }
+    }
+
+    /**
+     * Plans the day given by the query of a GET request, streaming its orders from the REST server.
+     *
+     * @param query Query of the request, as date=YYYY-MM-DD.
+     * @return The plan of the day.
+     * @throws IllegalArgumentException If the query has no valid date served by the REST server.
+     */
+    private DeliveryPlanner.DayPlan planDay(String query) {
+        if (query == null || !query.startsWith("date=")) {
+            throw new IllegalArgumentException("Expected a date as " + PLAN_PATH + "?date=YYYY-MM-DD");
+        }
+        LocalDate day;
+        try {
+            day = LocalDate.parse(query.substring("date=".length()));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("date entered must be valid and formatted as: YYYY-MM-DD");
+        }
+        if (day.isBefore(Orders.FIRST_DAY) || day.isAfter(Orders.LAST_DAY)) {
+            throw new IllegalArgumentException("date must be between " + Orders.FIRST_DAY + " and " + Orders.LAST_DAY);
+        }
+        return this.planner.planAsync(this.orders, day, Runnable::run).join();
+    }
+
+    /**
+     * Plans the orders posted in the body of a POST request.
+     *
+     * @param body Body of the request, a JSON array of orders.
+     * @return The plan of the orders.
+     * @throws IllegalArgumentException If the body is not a JSON array of orders, or an order has no number, no
+     *                                  date formatted as YYYY-MM-DD or no total.
+     */
+    private DeliveryPlanner.DayPlan planOrders(InputStream body) {
+        Order[] posted;
+        try (body) {
+            posted = MAPPER.readValue(body, Order[].class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("body must be a JSON array of orders: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("could not read body: " + e.getMessage());
+        }
+        List<Order> orderList = posted == null ? List.of() : Arrays.asList(posted);
+        for (Order order : orderList) {
+            checkOrder(order);
+        }
+        return this.planner.plan(orderList);
+    }
+
+    /**
+     * Checks that a posted order has the fields every order from the REST server has before it is planned.
+     *
+     * @param order Posted order, null if the array held a null.
+     * @throws IllegalArgumentException If the order is null, has no number, has no date formatted as YYYY-MM-DD or
+     *                                  has no total.
+     */
+    private static void checkOrder(Order order) {
+        if (order == null || order.getOrderNo() == null || order.getOrderNo().isBlank()) {
+            throw new IllegalArgumentException("every order must have an orderNo");
+        }
+        try {
+            LocalDate.parse(String.valueOf(order.getOrderDate()));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("order " + order.getOrderNo()
+                    + " must have an orderDate formatted as YYYY-MM-DD");
+        }
+        if (order.getPriceTotalInPence() == null) {
+            throw new IllegalArgumentException("order " + order.getOrderNo() + " must have a priceTotalInPence");
+        }
+    }
+
+    /**
+     * Writes a plan as an object holding its deliveries and flightpath records, as written to the day's files.
+     *
+     * @param generator Generator to write to.
+     * @param plan      Plan to write.
+     * @throws IOException If the plan cannot be written.
+     */
+    static void write(JsonGenerator generator, DeliveryPlanner.DayPlan plan) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName("deliveries");
+        WriteDeliveries.write(generator, plan.results());
+        generator.writeFieldName("flightpath");
+        WriteFlightpath.write(generator, plan.recorders(), plan.start(), plan.recorders().size() > 1);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Sends an error as a plain text message.
+     *
+     * @param exchange Request to answer.
+     * @param status   Status of the response.
+     * @param message  Message describing the error.
+     * @throws IOException If the response cannot be sent.
+     */
+    private static void error(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
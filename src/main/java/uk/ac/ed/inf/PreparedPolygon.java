@@ -0,0 +1,93 @@
+package uk.ac.ed.inf;
+
+import java.util.List;
+
+/**
+ * Polygon prepared once for repeated point containment tests, such as the Central Area.
+ * Vertices are copied into primitive arrays and the bounding box is kept so that points outside it are rejected before
+ * any edge is looked at. Like {@link InArea}, points on the perimeter count as inside.
+ *
+ * @author s2107575
+ */
+public final class PreparedPolygon {
+    private final double[] lngs;
+    private final double[] lats;
+    private final int n;
+    private final double minLng;
+    private final double maxLng;
+    private final double minLat;
+    private final double maxLat;
+
+    /**
+     * Prepares a polygon from its vertices. The ring may be open or closed.
+     *
+     * @param coordinates Vertices of the polygon as LngLat objects.
+     */
+    public PreparedPolygon(List<LngLat> coordinates) {
+        int size = coordinates.size();
+        if (size > 1 && coordinates.get(0).equals(coordinates.get(size - 1))) {
+            size--;
+        }
+        this.n = size;
+        this.lngs = new double[size];
+        this.lats = new double[size];
+        double lngLow = Double.MAX_VALUE;
+        double lngHigh = -Double.MAX_VALUE;
+        double latLow = Double.MAX_VALUE;
+        double latHigh = -Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            this.lngs[i] = coordinates.get(i).lng();
+            this.lats[i] = coordinates.get(i).lat();
+            lngLow = Math.min(lngLow, this.lngs[i]);
+            lngHigh = Math.max(lngHigh, this.lngs[i]);
+            latLow = Math.min(latLow, this.lats[i]);
+            latHigh = Math.max(latHigh, this.lats[i]);
+        }
+        this.minLng = lngLow;
+        this.maxLng = lngHigh;
+        this.minLat = latLow;
+        this.maxLat = latHigh;
+    }
+
+    /**
+     * Determines if a point is in or on the perimeter of the polygon, by casting a ray in the direction of increasing
+     * longitude and counting the edges it crosses.
+     *
+     * @param lng Longitude of the point.
+     * @param lat Latitude of the point.
+     * @return True if point is in or on the perimeter of the polygon and false otherwise.
+     */
+    public boolean contains(double lng, double lat) {
+        if (this.n < 3 || lng < this.minLng || lng > this.maxLng || lat < this.minLat || lat > this.maxLat) {
+            return false;
+        }
+        boolean inside = false;
+        for (int i = 0, j = this.n - 1; i < this.n; j = i++) {
+            double lngI = this.lngs[i];
+            double latI = this.lats[i];
+            double lngJ = this.lngs[j];
+            double latJ = this.lats[j];
+
+            double cross = (lngJ - lngI) * (lat - latI) - (latJ - latI) * (lng - lngI);
+            if (cross == 0 && lng >= Math.min(lngI, lngJ) && lng <= Math.max(lngI, lngJ)
+                    && lat >= Math.min(latI, latJ) && lat <= Math.max(latI, latJ)) {
+                return true;
+            }
+            if ((latI > lat) != (latJ > lat)
+                    && lng < (lngJ - lngI) * (lat - latI) / (latJ - latI) + lngI) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Determines if a point is in or on the perimeter of the polygon.
+     *
+     * @param point Point to check.
+     * @return True if point is in or on the perimeter of the polygon and false otherwise.
+     */
+    public boolean contains(LngLat point) {
+        return contains(point.lng(), point.lat());
+    }
+}
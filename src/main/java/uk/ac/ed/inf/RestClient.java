@@ -1,20 +1,72 @@
 package uk.ac.ed.inf;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.net.MalformedURLException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 /**
  * Class representing client to REST server.
+ * Every client shares one HttpClient, which keeps connections open between requests and uses HTTP/2 where the server
+ * supports it, and one ObjectMapper, so that several endpoints can be fetched at once with {@link #fetchAsync}.
+ * With a {@link SnapshotStore}, each response is kept as a snapshot and later requests only ask the server whether it
+ * changed, falling back to the snapshot if the server cannot be reached, or never contact the server when offline.
  */
 public class RestClient {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(TIMEOUT)
+            .build();
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static volatile SnapshotStore defaultSnapshots;
+
     private URL baseURL;
+    private final SnapshotStore snapshots;
 
 
     public RestClient(URL baseURL) {
+        this(baseURL, defaultSnapshots);
+    }
+
+    /**
+     * Client keeping its responses in the given snapshot store.
+     *
+     * @param baseURL   Base URL of the REST server.
+     * @param snapshots Store of snapshots, or null to always fetch from the server.
+     */
+    public RestClient(URL baseURL, SnapshotStore snapshots) {
         this.baseURL = baseURL;
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * Sets the snapshot store used by every client created afterwards without one.
+     *
+     * @param snapshots Store of snapshots, or null to always fetch from the server.
+     */
+    public static void useSnapshots(SnapshotStore snapshots) {
+        defaultSnapshots = snapshots;
     }
 
 
@@ -23,29 +75,232 @@ public class RestClient {
      *
      * @param fromEnd Desired endpoint as String
      * @param tClass  Class to map to
-     * @return Deserialized data as desired class
+     * @return Deserialized data as desired class, or null if it could not be retrieved
      */
     public <T> T deserialize(String fromEnd, Class<T> tClass) {
-        URL completeURl = null;
         T response = null;
         try {
-            String tmpURL = baseURL.toString();
-            if (tmpURL.endsWith("/") && fromEnd.startsWith("/")) {
-                fromEnd.substring(1);
-            } else if (!tmpURL.endsWith("/") && !fromEnd.startsWith("/")) {
-                tmpURL += "/";
-            }
-            completeURl = new URL(tmpURL + fromEnd);
-        } catch (MalformedURLException ex) {
+            response = fetchAsync(fromEnd, tClass).join();
+        } catch (CompletionException e) {
+            e.getCause().printStackTrace();
+        }
+        return response;
+    }
+
+    /**
+     * Starts retrieving and deserializing a json file from REST server without waiting for the response.
+     *
+     * @param fromEnd Desired endpoint as String
+     * @param tClass  Class to map to
+     * @return Future completed with the deserialized data, or completed exceptionally if the request fails, the
+     * server does not answer 200 OK or the body cannot be mapped to the class.
+     */
+    public <T> CompletableFuture<T> fetchAsync(String fromEnd, Class<T> tClass) {
+        return openAsync(fromEnd).thenApply(body -> {
+            try (InputStream in = body; JsonParser parser = MAPPER.getFactory().createParser(in)) {
+                T value = MAPPER.readValue(parser, tClass);
+                SnapshotStore.parsed(in);
+                return value;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Starts retrieving a json array from REST server and deserializes its elements one at a time as the body arrives,
+     * handing each to a consumer before the next is read. Neither the body nor the array is ever held whole.
+     *
+     * @param fromEnd  Desired endpoint as String
+     * @param tClass   Class to map each element to
+     * @param consumer Consumer of the elements, called in array order from a single thread
+     * @return Future completed with the number of elements once the whole array has been consumed.
+     */
+    public <T> CompletableFuture<Integer> streamAsync(String fromEnd, Class<T> tClass, Consumer<? super T> consumer) {
+        return openAsync(fromEnd).thenApply(body -> {
+            try (InputStream in = body; JsonParser parser = MAPPER.getFactory().createParser(in)) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("Expected a json array from " + fromEnd);
+                }
+                int count = 0;
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == null) {
+                        throw new IOException("Unexpected end of json array from " + fromEnd);
+                    }
+                    consumer.accept(MAPPER.readValue(parser, tClass));
+                    count++;
+                }
+                SnapshotStore.parsed(in);
+                return count;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Starts retrieving the body of an endpoint, from the server or from its snapshot.
+     *
+     * @param fromEnd Desired endpoint as String
+     * @return Future completed with the body of the response as soon as it starts to arrive.
+     */
+    private CompletableFuture<InputStream> openAsync(String fromEnd) {
+        URI uri;
+        try {
+            uri = resolve(fromEnd);
+        } catch (URISyntaxException e) {
             System.err.println("Provided URL invalid : " + baseURL + fromEnd);
             System.exit(2);
+            return null;
         }
+        if (this.snapshots == null) {
+            return send(uri, null).thenApply(response -> {
+                if (response.statusCode() != 200) {
+                    throw new UncheckedIOException(statusError(response));
+                }
+                return response.body();
+            });
+        }
+        SnapshotStore.Snapshot snapshot = this.snapshots.get(uri);
+        if (this.snapshots.isOffline()) {
+            if (snapshot == null) {
+                return CompletableFuture.failedFuture(new IOException("No snapshot of " + uri + " to use offline"));
+            }
+            return CompletableFuture.completedFuture(snapshot).thenApply(this::openSnapshot);
+        }
+        return send(uri, snapshot).handle((response, error) -> {
+            long now = System.currentTimeMillis();
+            if (error == null && response.statusCode() == 304 && snapshot != null) {
+                discard(response);
+                SnapshotStore.Snapshot revalidated = snapshot.revalidated(now);
+                this.snapshots.touch(revalidated);
+                return openSnapshot(revalidated);
+            }
+            if (error == null && response.statusCode() == 200) {
+                return this.snapshots.record(response.body(), new SnapshotStore.Snapshot(uri.toString(), now,
+                        response.headers().firstValue("ETag").orElse(null),
+                        response.headers().firstValue("Last-Modified").orElse(null)));
+            }
+            Throwable cause = error;
+            if (error == null) {
+                discard(response);
+                cause = statusError(response);
+            } else if (cause instanceof CompletionException) {
+                cause = cause.getCause();
+            }
+            if (snapshot != null && (error != null || response.statusCode() >= 500)) {
+                System.err.println("Using snapshot of " + uri + " fetched at "
+                        + Instant.ofEpochMilli(snapshot.fetchedAt()) + ": " + cause);
+                return openSnapshot(snapshot);
+            }
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+        });
+    }
+
+    private InputStream openSnapshot(SnapshotStore.Snapshot snapshot) {
         try {
-            response = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false).readValue(completeURl, tClass);
-        } catch (Exception e) {
-            e.printStackTrace();
+            return this.snapshots.openBody(snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return response;
+    }
+
+    /**
+     * Sends a GET request, made conditional on the validators of a snapshot if there is one.
+     *
+     * @param uri      Complete URI of the endpoint.
+     * @param snapshot Snapshot of the endpoint, or null.
+     * @return Future completed with the response once its headers have arrived.
+     */
+    private static CompletableFuture<HttpResponse<InputStream>> send(URI uri, SnapshotStore.Snapshot snapshot) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json")
+                .GET();
+        if (snapshot != null && snapshot.etag() != null) {
+            request.header("If-None-Match", snapshot.etag());
+        }
+        if (snapshot != null && snapshot.lastModified() != null) {
+            request.header("If-Modified-Since", snapshot.lastModified());
+        }
+        long sent = System.nanoTime();
+        Metrics.increment(Metrics.Counter.REST_REQUESTS);
+        return HTTP_CLIENT.sendAsync(request.build(), responseInfo -> {
+            Metrics.add(Metrics.Counter.REST_LATENCY_NANOS, System.nanoTime() - sent);
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(),
+                    body -> new MeteredBody(body, sent));
+        });
+    }
+
+    /**
+     * Body of a response that counts the bytes read from it and times the fetch from sending the request until the
+     * body is closed.
+     */
+    private static final class MeteredBody extends FilterInputStream {
+        private final long sent;
+        private boolean closed;
+
+        private MeteredBody(InputStream body, long sent) {
+            super(body);
+            this.sent = sent;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                Metrics.increment(Metrics.Counter.REST_BYTES);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                Metrics.add(Metrics.Counter.REST_BYTES, n);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!this.closed) {
+                this.closed = true;
+                Metrics.time(Metrics.Phase.REST_FETCH, this.sent);
+            }
+            super.close();
+        }
+    }
+
+    private static void discard(HttpResponse<InputStream> response) {
+        try (InputStream in = response.body()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException ignored) {
+            // The connection is dropped instead of reused.
+        }
+    }
+
+    private static IOException statusError(HttpResponse<?> response) {
+        return new IOException("Server answered " + response.statusCode() + " for " + response.uri());
+    }
+
+    /**
+     * Joins the base URL and an endpoint with exactly one slash between them.
+     *
+     * @param fromEnd Desired endpoint as String
+     * @return Complete URI of the endpoint.
+     * @throws URISyntaxException If the complete URI is invalid.
+     */
+    URI resolve(String fromEnd) throws URISyntaxException {
+        String tmpURL = baseURL.toString();
+        if (tmpURL.endsWith("/") && fromEnd.startsWith("/")) {
+            fromEnd = fromEnd.substring(1);
+        } else if (!tmpURL.endsWith("/") && !fromEnd.startsWith("/")) {
+            tmpURL += "/";
+        }
+        return new URI(tmpURL + fromEnd);
     }
 
 
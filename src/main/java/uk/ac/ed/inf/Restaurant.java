@@ -5,6 +5,7 @@ import com.mapbox.geojson.Point;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -59,6 +60,18 @@ public class Restaurant {
         return new RestClient(new URL(serverBaseAddress)).deserialize("/restaurants", Restaurant[].class);
     }
 
+    /**
+     * Static method that starts retrieving the restaurants from the REST server without waiting for them.
+     *
+     * @param serverBaseAddress URL of REST-request to restaurant endpoint
+     * @return Future completed with the Restaurant objects after de-serialization
+     * @throws IOException if URL is malformed
+     */
+    public static CompletableFuture<Restaurant[]> getRestaurantsFromRestServerAsync(String serverBaseAddress)
+            throws IOException {
+        return new RestClient(new URL(serverBaseAddress)).fetchAsync("/restaurants", Restaurant[].class);
+    }
+
 
     /**
      * Method that returns array representation of the menu of a Restaurant object
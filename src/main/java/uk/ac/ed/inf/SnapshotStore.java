@@ -0,0 +1,234 @@
+package uk.ac.ed.inf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Local store of the last response of each REST endpoint, used by {@link RestClient}.
+ * Each snapshot is kept as two files in the store directory, keyed by a hash of the complete URI of the endpoint: the
+ * body of the response as the server sent it, and its metadata, which stamps it with the time it was fetched and the
+ * ETag and Last-Modified validators the server sent with it. Online, a snapshot lets the client revalidate with a
+ * conditional request and fall back to it when the server cannot be reached. Offline, snapshots are served without
+ * contacting the server at all. Bodies are written while they are read, so a response is never held in memory whole,
+ * and only become a snapshot once the caller has parsed them, so a body the client cannot use is never served later.
+ *
+ * @author s2107575
+ */
+public class SnapshotStore {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String BODY_SUFFIX = ".json";
+    private static final String META_SUFFIX = ".meta.json";
+    private final Path directory;
+    private final boolean offline;
+
+    /**
+     * Store keeping snapshots in the given directory.
+     *
+     * @param directory Directory to read and write snapshots.
+     * @param offline   True if responses must come from the snapshots alone.
+     */
+    public SnapshotStore(Path directory, boolean offline) {
+        this.directory = directory;
+        this.offline = offline;
+    }
+
+    /**
+     * Checks if the store serves snapshots without contacting the server.
+     *
+     * @return True in offline mode.
+     */
+    public boolean isOffline() {
+        return this.offline;
+    }
+
+    /**
+     * Reads the metadata of the snapshot of an endpoint.
+     *
+     * @param uri Complete URI of the endpoint.
+     * @return The snapshot, or null if the endpoint has none.
+     */
+    public Snapshot get(URI uri) {
+        String key = PathCache.hash(uri.toString());
+        Path meta = this.directory.resolve(key + META_SUFFIX);
+        if (!Files.exists(meta) || !Files.exists(this.directory.resolve(key + BODY_SUFFIX))) {
+            return null;
+        }
+        try {
+            return MAPPER.readValue(meta.toFile(), Snapshot.class);
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable snapshot " + meta + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Opens the body of a snapshot.
+     *
+     * @param snapshot Snapshot read with {@link #get}.
+     * @return Stream of the body as the server sent it.
+     * @throws IOException If the body cannot be opened.
+     */
+    public InputStream openBody(Snapshot snapshot) throws IOException {
+        return Files.newInputStream(this.directory.resolve(PathCache.hash(snapshot.uri()) + BODY_SUFFIX));
+    }
+
+    /**
+     * Writes the metadata of a snapshot whose body is unchanged, such as after the server confirmed it is current.
+     *
+     * @param snapshot Snapshot to write.
+     */
+    public void touch(Snapshot snapshot) {
+        try {
+            writeMeta(snapshot);
+        } catch (IOException e) {
+            System.err.println("Could not write snapshot of " + snapshot.uri() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Wraps the body of a fresh response so that it is copied into the store as it is read. If the caller marked the
+     * body with {@link #parsed}, the snapshot replaces any earlier one once the stream is closed, after reading whatever
+     * the caller left unread. It is discarded if reading the body fails or the stream is closed without being marked.
+     *
+     * @param body     Body of the response.
+     * @param snapshot Metadata of the response.
+     * @return Stream to read the body from.
+     */
+    public InputStream record(InputStream body, Snapshot snapshot) {
+        try {
+            Files.createDirectories(this.directory);
+            Path tmp = Files.createTempFile(this.directory, PathCache.hash(snapshot.uri()), ".tmp");
+            return new Recording(body, tmp, snapshot);
+        } catch (IOException e) {
+            System.err.println("Could not write snapshot of " + snapshot.uri() + ": " + e.getMessage());
+            return body;
+        }
+    }
+
+    /**
+     * Marks the body of a response as parsed by the caller, so that closing it commits its snapshot. Bodies that did
+     * not come from {@link #record} are left as they are.
+     *
+     * @param body Stream returned by {@link #record} or any other stream.
+     */
+    public static void parsed(InputStream body) {
+        if (body instanceof Recording recording) {
+            recording.parsed = true;
+        }
+    }
+
+    private void writeMeta(Snapshot snapshot) throws IOException {
+        String key = PathCache.hash(snapshot.uri());
+        Files.createDirectories(this.directory);
+        Path tmp = Files.createTempFile(this.directory, key, ".tmp");
+        MAPPER.writeValue(tmp.toFile(), snapshot);
+        Files.move(tmp, this.directory.resolve(key + META_SUFFIX), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Stream copying every byte read from a response body into a temporary file, which becomes the body of the
+     * snapshot when the stream is closed after the caller parsed it.
+     */
+    private final class Recording extends FilterInputStream {
+        private final Path tmp;
+        private final OutputStream copy;
+        private final Snapshot snapshot;
+        private final byte[] single = new byte[1];
+        private boolean parsed;
+        private boolean failed;
+        private boolean closed;
+
+        private Recording(InputStream body, Path tmp, Snapshot snapshot) throws IOException {
+            super(body);
+            this.tmp = tmp;
+            this.copy = Files.newOutputStream(tmp);
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return read(this.single, 0, 1) == -1 ? -1 : this.single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            try {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    this.copy.write(buffer, offset, n);
+                }
+                return n;
+            } catch (IOException e) {
+                this.failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            try {
+                byte[] buffer = new byte[8192];
+                while (this.parsed && !this.failed && read(buffer, 0, buffer.length) != -1) {
+                    // Read the rest of the body so that the snapshot is complete.
+                }
+            } catch (IOException ignored) {
+                // Already marked as failed.
+            } finally {
+                super.close();
+                this.copy.close();
+                if (this.failed || !this.parsed) {
+                    Files.deleteIfExists(this.tmp);
+                } else {
+                    Files.move(this.tmp, directory.resolve(PathCache.hash(this.snapshot.uri()) + BODY_SUFFIX),
+                            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    writeMeta(this.snapshot);
+                }
+            }
+        }
+    }
+
+    /**
+     * Record representing the metadata of the response of an endpoint as last fetched.
+     *
+     * @param uri          Complete URI of the endpoint.
+     * @param fetchedAt    Time the response was fetched or last revalidated, in milliseconds since the epoch.
+     * @param etag         ETag header of the response, or null if the server sent none.
+     * @param lastModified Last-Modified header of the response, or null if the server sent none.
+     */
+    public record Snapshot(String uri, long fetchedAt, String etag, String lastModified) {
+        /**
+         * Copies the snapshot with a new fetch time after the server confirmed it is unchanged.
+         *
+         * @param time Time of the revalidation in milliseconds since the epoch.
+         * @return The revalidated snapshot.
+         */
+        public Snapshot revalidated(long time) {
+            return new Snapshot(this.uri, time, this.etag, this.lastModified);
+        }
+    }
+}
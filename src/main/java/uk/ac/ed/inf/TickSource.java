@@ -0,0 +1,94 @@
+package uk.ac.ed.inf;
+
+/**
+ * Source of the ticks drones record their moves at, from which the ticksSinceStartOfCalculation of the flightpath are
+ * worked out. Reading a tick is a single primitive call, so it can be made on every move.
+ * The {@link #monotonic()} source counts milliseconds of {@link System#nanoTime()}, which never goes backwards when the
+ * wall clock is adjusted. The {@link #simulated(long)} source advances by a fixed step on every read, so the same plan
+ * always records the same ticks, which is what tests, benchmarks and output comparisons need.
+ *
+ * @author s2107575
+ */
+public interface TickSource {
+
+    /**
+     * Reads the current tick.
+     *
+     * @return The current tick.
+     */
+    long ticks();
+
+    /**
+     * Gets the source for one flight, or for one day of flights, started from this source. Drones of a fleet fly in
+     * parallel, so each is given its own fork and never reads a source another drone reads.
+     * Sources without state, such as the monotonic source, are their own fork.
+     *
+     * @return Source continuing from the current tick of this source.
+     */
+    default TickSource fork() {
+        return this;
+    }
+
+    /**
+     * Gets the source counting milliseconds of the JVM's monotonic clock.
+     *
+     * @return The monotonic source.
+     */
+    static TickSource monotonic() {
+        return Monotonic.INSTANCE;
+    }
+
+    /**
+     * Gets a deterministic source starting at tick 0 and advancing by the given step on every read.
+     *
+     * @param step Ticks between two reads.
+     * @return New simulated source.
+     */
+    static TickSource simulated(long step) {
+        if (step < 0) {
+            throw new IllegalArgumentException("A simulated tick source cannot go backwards");
+        }
+        return new Simulated(0, step);
+    }
+
+    /**
+     * Source counting milliseconds of {@link System#nanoTime()}.
+     */
+    final class Monotonic implements TickSource {
+        private static final Monotonic INSTANCE = new Monotonic();
+
+        private Monotonic() {
+        }
+
+        @Override
+        public long ticks() {
+            return System.nanoTime() / 1_000_000;
+        }
+    }
+
+    /**
+     * Source advancing by a fixed step on every read. It is not thread safe; use {@link #fork()} to hand it to
+     * another thread.
+     */
+    final class Simulated implements TickSource {
+        private final long step;
+        private long next;
+
+        private Simulated(long next, long step) {
+            this.next = next;
+            this.step = step;
+        }
+
+        @Override
+        public long ticks() {
+            long tick = this.next;
+            this.next += this.step;
+            return tick;
+        }
+
+        @Override
+        public TickSource fork() {
+            return new Simulated(this.next, this.step);
+        }
+    }
+}
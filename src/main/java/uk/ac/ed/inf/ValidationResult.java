@@ -0,0 +1,32 @@
+package uk.ac.ed.inf;
+
+/**
+ * Immutable outcome of validating an {@link Order}, produced by {@link OrderValidator} without changing the order, so
+ * that many orders can be validated at once.
+ *
+ * @param order       Order that was validated.
+ * @param outcome     Outcome of the order, {@link OrderOutcome#ValidButNotDelivered} if it is valid.
+ * @param supplier    Restaurant supplying every pizza of the order, or null if the pizzas are not a valid combination.
+ * @param costInPence Cost of the pizzas plus the delivery fee in pence, or 0 if the order could not be priced.
+ * @author s2107575
+ */
+public record ValidationResult(Order order, OrderOutcome outcome, Restaurant supplier, int costInPence) {
+    /**
+     * Checks if the order passed validation and can be delivered.
+     *
+     * @return True if the order is valid and false otherwise.
+     */
+    public boolean isValid() {
+        return this.outcome == OrderOutcome.ValidButNotDelivered;
+    }
+
+    /**
+     * Copies the result with another outcome, such as once the order has been delivered.
+     *
+     * @param newOutcome Outcome of the copy.
+     * @return The result with the new outcome.
+     */
+    public ValidationResult withOutcome(OrderOutcome newOutcome) {
+        return new ValidationResult(this.order, newOutcome, this.supplier, this.costInPence);
+    }
+}
@@ -0,0 +1,335 @@
+package uk.ac.ed.inf;
+
+import com.mapbox.geojson.Point;
+import com.mapbox.geojson.Polygon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Any-angle planner following the shortest path around the NoFlyZones with legal lattice moves.
+ * The visibility graph is built once per {@link Map}: its vertices are the corners of the NoFlyZones, pushed out of
+ * the zone so that the drone can pass them, plus Appleton Tower and the restaurants, and two vertices are joined when
+ * the straight line between them crosses no NoFlyZone edge. A query joins the start and target to the vertices they
+ * can see, runs Dijkstra over the graph and then steers along the path with the 16 {@link Direction}s, heading for the
+ * furthest waypoint in sight and checking every move with {@link DronePos#isLegalMove}.
+ * Queries that cannot be steered, such as a return leg that would have to leave the Central Area, are planned with
+ * {@link AStarPlanner} instead.
+ *
+ * @author s2107575
+ */
+public final class VisibilityGraphPlanner implements PathPlanner {
+    /**
+     * Distance the path keeps from the edges on either side of a NoFlyZone corner, so that lattice moves zigzagging
+     * around the straight line do not clip the corner.
+     */
+    private static final double CLEARANCE = LngLat.MOVE_DIST;
+
+    /**
+     * Furthest a corner vertex is pushed out, reached at sharp corners.
+     */
+    private static final double MAX_OFFSET = CLEARANCE * 4;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * Compass points to rotate the best direction by, in the order they are tried when a move is not legal.
+     */
+    private static final int[] TRY_OFFSETS = {0, -1, 1, -2, 2, -3, 3, -4, 4};
+
+    private final Map map;
+    private final AStarPlanner fallback;
+    private final double[] lngs;
+    private final double[] lats;
+
+    /**
+     * Vertices in sight of vertex v are neighbours[v], at the distances in weights[v].
+     */
+    private final int[][] neighbours;
+    private final double[][] weights;
+
+    /**
+     * Builds the visibility graph of a map.
+     *
+     * @param map         Map representing the PizzaDronz area of service and its elements.
+     * @param restaurants Positions of the restaurants.
+     * @param home        Position of Appleton Tower.
+     */
+    public VisibilityGraphPlanner(Map map, List<LngLat> restaurants, LngLat home) {
+        this.map = map;
+        this.fallback = new AStarPlanner(map);
+
+        List<PreparedPolygon> zones = new ArrayList<>();
+        List<List<LngLat>> rings = new ArrayList<>();
+        for (Polygon zone : map.getNoFlyZones()) {
+            List<LngLat> ring = new ArrayList<>();
+            for (Point point : zone.coordinates().get(0)) {
+                ring.add(new LngLat(point.longitude(), point.latitude()));
+            }
+            if (ring.size() > 1 && ring.get(0).equals(ring.get(ring.size() - 1))) {
+                ring.remove(ring.size() - 1);
+            }
+            rings.add(ring);
+            zones.add(new PreparedPolygon(ring));
+        }
+
+        List<LngLat> vertices = new ArrayList<>();
+        vertices.add(home);
+        vertices.addAll(restaurants);
+        for (List<LngLat> ring : rings) {
+            for (int i = 0; i < ring.size(); i++) {
+                LngLat corner = corner(ring.get((i + ring.size() - 1) % ring.size()), ring.get(i),
+                        ring.get((i + 1) % ring.size()));
+                if (corner != null && !inAnyZone(zones, corner)) {
+                    vertices.add(corner);
+                }
+            }
+        }
+
+        int n = vertices.size();
+        this.lngs = new double[n];
+        this.lats = new double[n];
+        for (int v = 0; v < n; v++) {
+            this.lngs[v] = vertices.get(v).lng();
+            this.lats[v] = vertices.get(v).lat();
+        }
+        int[][] seen = new int[n][n];
+        int[] counts = new int[n];
+        for (int a = 0; a < n; a++) {
+            for (int b = a + 1; b < n; b++) {
+                if (visible(this.lngs[a], this.lats[a], this.lngs[b], this.lats[b])) {
+                    seen[a][counts[a]++] = b;
+                    seen[b][counts[b]++] = a;
+                }
+            }
+        }
+        this.neighbours = new int[n][];
+        this.weights = new double[n][];
+        for (int v = 0; v < n; v++) {
+            this.neighbours[v] = Arrays.copyOf(seen[v], counts[v]);
+            this.weights[v] = new double[counts[v]];
+            for (int k = 0; k < counts[v]; k++) {
+                this.weights[v][k] = distance(v, this.neighbours[v][k]);
+            }
+        }
+    }
+
+    /**
+     * Pushes a convex corner of a NoFlyZone out along the bisector of its edges, far enough to keep
+     * {@link #CLEARANCE} from both edges.
+     *
+     * @param previous Vertex before the corner.
+     * @param corner   Corner to push out.
+     * @param next     Vertex after the corner.
+     * @return Position of the vertex of the graph, or null if the edges are in line.
+     */
+    private static LngLat corner(LngLat previous, LngLat corner, LngLat next) {
+        double inLng = corner.lng() - previous.lng();
+        double inLat = corner.lat() - previous.lat();
+        double outLng = corner.lng() - next.lng();
+        double outLat = corner.lat() - next.lat();
+        double inLength = Math.hypot(inLng, inLat);
+        double outLength = Math.hypot(outLng, outLat);
+        if (inLength == 0 || outLength == 0) {
+            return null;
+        }
+        double bisectorLng = inLng / inLength + outLng / outLength;
+        double bisectorLat = inLat / inLength + outLat / outLength;
+        double length = Math.hypot(bisectorLng, bisectorLat);
+        if (length < 1e-9) {
+            return null;
+        }
+        // length is twice the cosine of half the angle at the corner, so the clearance to each edge is the offset
+        // times the sine of that half angle.
+        double halfAngleSine = Math.sqrt(Math.max(0, 1 - length * length / 4));
+        double offset = halfAngleSine == 0 ? MAX_OFFSET : Math.min(MAX_OFFSET, CLEARANCE / halfAngleSine);
+        return new LngLat(corner.lng() + bisectorLng / length * offset, corner.lat() + bisectorLat / length * offset);
+    }
+
+    private static boolean inAnyZone(List<PreparedPolygon> zones, LngLat point) {
+        for (PreparedPolygon zone : zones) {
+            if (zone.contains(point)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean visible(double fromLng, double fromLat, double toLng, double toLat) {
+        return !this.map.getNoFlyIndex().intersects(fromLng, fromLat, toLng, toLat);
+    }
+
+    private double distance(int a, int b) {
+        return Math.hypot(this.lngs[a] - this.lngs[b], this.lats[a] - this.lats[b]);
+    }
+
+    /**
+     * Gets the number of vertices of the visibility graph.
+     *
+     * @return Number of vertices.
+     */
+    public int size() {
+        return this.lngs.length;
+    }
+
+    @Override
+    public List<Direction> plan(LngLat start, LngLat target, boolean onReturn) {
+        double[] waypoints = shortestPath(start, target);
+        List<Direction> moves = waypoints == null ? null : steer(start, waypoints, target, onReturn);
+        return moves != null ? moves : this.fallback.plan(start, target, onReturn);
+    }
+
+    /**
+     * Runs Dijkstra from the start to the target over the visibility graph, joined to both for this query.
+     *
+     * @param start  Position the path starts from.
+     * @param target Position the path ends at.
+     * @return Waypoints after the start as longitude, latitude pairs, ending with the target, or null if the target
+     * cannot be reached.
+     */
+    double[] shortestPath(LngLat start, LngLat target) {
+        int n = size();
+        int source = n;
+        int sink = n + 1;
+        double[] sinkDistance = new double[n];
+        for (int v = 0; v < n; v++) {
+            sinkDistance[v] = visible(this.lngs[v], this.lats[v], target.lng(), target.lat())
+                    ? Math.hypot(this.lngs[v] - target.lng(), this.lats[v] - target.lat()) : Double.NaN;
+        }
+        double[] dist = new double[n + 2];
+        int[] previous = new int[n + 2];
+        boolean[] done = new boolean[n + 2];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(previous, -1);
+        dist[source] = 0;
+        if (visible(start.lng(), start.lat(), target.lng(), target.lat())) {
+            dist[sink] = start.distanceTo(target);
+            previous[sink] = source;
+        }
+        for (int v = 0; v < n; v++) {
+            if (visible(start.lng(), start.lat(), this.lngs[v], this.lats[v])) {
+                dist[v] = Math.hypot(this.lngs[v] - start.lng(), this.lats[v] - start.lat());
+                previous[v] = source;
+            }
+        }
+        done[source] = true;
+
+        while (true) {
+            int u = -1;
+            for (int v = 0; v < n + 2; v++) {
+                if (!done[v] && dist[v] < Double.POSITIVE_INFINITY && (u < 0 || dist[v] < dist[u])) {
+                    u = v;
+                }
+            }
+            if (u < 0) {
+                return null;
+            }
+            if (u == sink) {
+                break;
+            }
+            done[u] = true;
+            for (int k = 0; k < this.neighbours[u].length; k++) {
+                int v = this.neighbours[u][k];
+                if (!done[v] && dist[u] + this.weights[u][k] < dist[v]) {
+                    dist[v] = dist[u] + this.weights[u][k];
+                    previous[v] = u;
+                }
+            }
+            if (!Double.isNaN(sinkDistance[u]) && dist[u] + sinkDistance[u] < dist[sink]) {
+                dist[sink] = dist[u] + sinkDistance[u];
+                previous[sink] = u;
+            }
+        }
+
+        int count = 0;
+        for (int v = sink; v != source; v = previous[v]) {
+            count++;
+        }
+        double[] waypoints = new double[count * 2];
+        int i = count;
+        for (int v = sink; v != source; v = previous[v]) {
+            i--;
+            waypoints[i * 2] = v == sink ? target.lng() : this.lngs[v];
+            waypoints[i * 2 + 1] = v == sink ? target.lat() : this.lats[v];
+        }
+        return waypoints;
+    }
+
+    /**
+     * Turns a path of waypoints into lattice moves, always heading for the furthest waypoint in sight.
+     *
+     * @param start     Position the moves start from.
+     * @param waypoints Waypoints after the start as longitude, latitude pairs, ending with the target.
+     * @param target    Position the moves end close to.
+     * @param onReturn  True if the drone is returning from an order.
+     * @return Directions of each move, or null if the path could not be followed with legal moves.
+     */
+    private List<Direction> steer(LngLat start, double[] waypoints, LngLat target, boolean onReturn) {
+        int last = waypoints.length / 2 - 1;
+        double length = 0;
+        double lng = start.lng();
+        double lat = start.lat();
+        for (int w = 0; w <= last; w++) {
+            length += Math.hypot(waypoints[w * 2] - lng, waypoints[w * 2 + 1] - lat);
+            lng = waypoints[w * 2];
+            lat = waypoints[w * 2 + 1];
+        }
+        int maxMoves = (int) Math.ceil(length / LngLat.MOVE_DIST * 1.5) + 16;
+
+        List<Direction> moves = new ArrayList<>();
+        lng = start.lng();
+        lat = start.lat();
+        int w = 0;
+        while (Math.hypot(lng - target.lng(), lat - target.lat()) > LngLat.TOLERANCE) {
+            if (moves.size() >= maxMoves) {
+                return null;
+            }
+            while (w < last && (Math.hypot(lng - waypoints[w * 2], lat - waypoints[w * 2 + 1]) <= LngLat.MOVE_DIST
+                    || visible(lng, lat, waypoints[w * 2 + 2], waypoints[w * 2 + 3]))) {
+                w++;
+            }
+            Direction best = bestDirection(lng, lat, waypoints[w * 2], waypoints[w * 2 + 1]);
+            Direction move = null;
+            for (int offset : TRY_OFFSETS) {
+                Direction tryDirection = best.rotate(offset);
+                if (DronePos.isLegalMove(this.map, lng, lat, lng + tryDirection.dLng(), lat + tryDirection.dLat(),
+                        onReturn)) {
+                    move = tryDirection;
+                    break;
+                }
+            }
+            if (move == null) {
+                return null;
+            }
+            moves.add(move);
+            lng += move.dLng();
+            lat += move.dLat();
+        }
+        return moves;
+    }
+
+    /**
+     * Finds the direction whose move ends closest to the aim.
+     *
+     * @param lng    Longitude to move from.
+     * @param lat    Latitude to move from.
+     * @param aimLng Longitude to head for.
+     * @param aimLat Latitude to head for.
+     * @return Best direction to move in.
+     */
+    private static Direction bestDirection(double lng, double lat, double aimLng, double aimLat) {
+        double minDistance = Double.MAX_VALUE;
+        Direction best = Direction.E;
+        for (Direction d : DIRECTIONS) {
+            double lngDist = lng + d.dLng() - aimLng;
+            double latDist = lat + d.dLat() - aimLat;
+            double distance = lngDist * lngDist + latDist * latDist;
+            if (distance < minDistance) {
+                minDistance = distance;
+                best = d;
+            }
+        }
+        return best;
+    }
+}
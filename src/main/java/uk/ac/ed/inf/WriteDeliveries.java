@@ -1,34 +1,39 @@
 package uk.ac.ed.inf;
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
+import com.fasterxml.jackson.core.JsonGenerator;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.List;
 
 
 public class WriteDeliveries {
-    private static JSONObject orderInfo(Order order){
-        JSONObject object = new JSONObject();
-        object.put("orderNo", order.getOrderNo());
-        object.put("outcome", order.getOrderOutcome().toString());
-        object.put("costInPence", order.deliveryCostInPence());
-        return object;
+    private static void orderInfo(JsonGenerator generator, ValidationResult result) throws IOException {
+        // Fields in the order json-simple wrote them, which is the iteration order of its HashMap.
+        generator.writeStartObject();
+        generator.writeStringField("orderNo", result.order().getOrderNo());
+        generator.writeNumberField("costInPence", result.costInPence());
+        generator.writeStringField("outcome", result.outcome().toString());
+        generator.writeEndObject();
     }
-    private static JSONArray deliveries(List<Order> orderList){
-        JSONArray deliveriesArray = new JSONArray();
-        for(Order order: orderList){
-            deliveriesArray.add(orderInfo(order));
+
+    /**
+     * Streams the outcome of every order as a JSON array.
+     *
+     * @param generator Generator to write to.
+     * @param orderList Validation results of the orders.
+     * @throws IOException If the records cannot be written.
+     */
+    static void write(JsonGenerator generator, List<ValidationResult> orderList) throws IOException {
+        generator.writeStartArray();
+        for (ValidationResult result : orderList) {
+            orderInfo(generator, result);
         }
-        return deliveriesArray;
+        generator.writeEndArray();
     }
 
-    public static void writeFile(String date, List<Order> orderList) throws IOException {
-        String path = "deliveries-" + date + ".json";
-        FileWriter fileWriter = new FileWriter(path);
-        fileWriter.write(deliveries(orderList).toJSONString());
-        fileWriter.close();
+    public static void writeFile(String date, List<ValidationResult> orderList) throws IOException {
+        try (JsonGenerator generator = JsonOutput.open("deliveries-" + date + ".json")) {
+            write(generator, orderList);
+        }
     }
 }
-
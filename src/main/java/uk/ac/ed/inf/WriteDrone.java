@@ -1,13 +1,60 @@
 package uk.ac.ed.inf;
 
-import java.io.FileWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+
 import java.io.IOException;
+import java.util.List;
 
 public class WriteDrone {
-    public static void writeDrone(String date, String droneString) throws IOException {
-        String path = "drone-" + date +".geojson";
-        FileWriter fileWriter = new FileWriter(path);
-        fileWriter.write(droneString);
-        fileWriter.close();
+    /**
+     * Streams the flights of a day to its GeoJson file, the same as the GeoJson library would write them but without
+     * building the features or the String first.
+     *
+     * @param date      Date of the flights.
+     * @param recorders Flight recorder of each drone, the index being the drone id.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeDrone(String date, List<FlightRecorder> recorders) throws IOException {
+        try (JsonGenerator generator = JsonOutput.open("drone-" + date + ".geojson")) {
+            write(generator, recorders);
+        }
+    }
+
+    /**
+     * Streams the flights as a FeatureCollection with a LineString per drone, with its drone id as a property if there
+     * is more than one drone.
+     *
+     * @param generator Generator to write to.
+     * @param recorders Flight recorder of each drone, the index being the drone id.
+     * @throws IOException If the flights cannot be written.
+     */
+    static void write(JsonGenerator generator, List<FlightRecorder> recorders) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "FeatureCollection");
+        generator.writeArrayFieldStart("features");
+        for (int droneId = 0; droneId < recorders.size(); droneId++) {
+            FlightRecorder recorder = recorders.get(droneId);
+            generator.writeStartObject();
+            generator.writeStringField("type", "Feature");
+            generator.writeObjectFieldStart("geometry");
+            generator.writeStringField("type", "LineString");
+            generator.writeArrayFieldStart("coordinates");
+            for (int i = 0; i <= recorder.size(); i++) {
+                generator.writeStartArray();
+                JsonOutput.writeCoordinate(generator, recorder.lng(i));
+                JsonOutput.writeCoordinate(generator, recorder.lat(i));
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeObjectFieldStart("properties");
+            if (recorders.size() > 1) {
+                generator.writeNumberField("droneId", droneId);
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
     }
 }
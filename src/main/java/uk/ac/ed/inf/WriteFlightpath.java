@@ -1,38 +1,114 @@
 package uk.ac.ed.inf;
 
-import com.mapbox.geojson.Point;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
+import com.fasterxml.jackson.core.JsonGenerator;
 
-import java.io.FileWriter;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public class WriteFlightpath {
-    private static JSONArray flightpath(List<String> moveOrders, List<Point> fp, List<String> angles, List<Integer> ticks, Integer start){
-        JSONArray flightpathArray = new JSONArray();
-
-        for (int i = 0; i < fp.size() - 1; i++) {
-            JSONObject myflightpath = new JSONObject();
-            myflightpath.put("orderNo", moveOrders.get(i));
-            myflightpath.put("fromLongitude", fp.get(i).longitude());
-            myflightpath.put("fromLatitude", fp.get(i).latitude());
-            myflightpath.put("angle", angles.get(i));
-            myflightpath.put("toLongitude", fp.get(i + 1).longitude());
-            myflightpath.put("toLatitude", fp.get(i + 1).latitude());
-            Integer sinceCalc = ticks.get(i) - start;
-            myflightpath.put("ticksSinceStartOfCalculation", sinceCalc);
-            flightpathArray.add(myflightpath);
+    private static void flightpath(JsonGenerator generator, FlightRecorder recorder, long start, Integer droneId)
+            throws IOException {
+        for (int i = 0; i < recorder.size(); i++) {
+            writeRecord(generator, recorder.tick(i) - start, recorder.orderNo(i), droneId, recorder.lng(i),
+                    recorder.lat(i), recorder.angle(i), recorder.lng(i + 1), recorder.lat(i + 1));
         }
-        return flightpathArray;
     }
 
-    public static void writeFile(String date, List<String> moveOrders, List<Point> flightpath, List<String> angles,
-                                 List<Integer> ticks, Integer start) throws IOException {
-        String path = "flightpath-" + date +".json";
-        FileWriter fileWriter = new FileWriter(path);
-        fileWriter.write(flightpath(moveOrders, flightpath, angles, ticks, start).toJSONString());
-        fileWriter.close();
+    /**
+     * Writes the flightpath record of one move.
+     *
+     * @param generator Generator to write to.
+     * @param sinceCalc Ticks between the start of the calculation and the move.
+     * @param orderNo   Order number the move was made for.
+     * @param droneId   Id of the drone that made the move, or null to leave it out.
+     * @param fromLng   Longitude before the move.
+     * @param fromLat   Latitude before the move.
+     * @param angle     Angle of the move, or "null" if the drone hovered.
+     * @param toLng     Longitude after the move.
+     * @param toLat     Latitude after the move.
+     * @throws IOException If the record cannot be written.
+     */
+    static void writeRecord(JsonGenerator generator, long sinceCalc, String orderNo, Integer droneId, double fromLng,
+                            double fromLat, String angle, double toLng, double toLat) throws IOException {
+        // Fields in the order json-simple wrote them, which is the iteration order of its HashMap.
+        generator.writeStartObject();
+        generator.writeNumberField("ticksSinceStartOfCalculation", sinceCalc);
+        generator.writeStringField("orderNo", orderNo);
+        if (droneId != null) {
+            generator.writeNumberField("droneId", droneId);
+        }
+        generator.writeFieldName("fromLongitude");
+        JsonOutput.writeDouble(generator, fromLng);
+        generator.writeFieldName("fromLatitude");
+        JsonOutput.writeDouble(generator, fromLat);
+        generator.writeStringField("angle", angle);
+        generator.writeFieldName("toLatitude");
+        JsonOutput.writeDouble(generator, toLat);
+        generator.writeFieldName("toLongitude");
+        JsonOutput.writeDouble(generator, toLng);
+        generator.writeEndObject();
+    }
+
+    public static void writeFile(String date, FlightRecorder recorder, long start) throws IOException {
+        try (JsonGenerator generator = open(date)) {
+            write(generator, List.of(recorder), start, false);
+        }
+    }
+
+    /**
+     * Writes the flightpaths of a fleet to one file, each record carrying the id of the drone that flew it.
+     *
+     * @param date      Date of the flights.
+     * @param recorders Flight recorder of each drone, the index being the drone id.
+     * @param start     Tick the calculation started at.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeFile(String date, List<FlightRecorder> recorders, long start) throws IOException {
+        try (JsonGenerator generator = open(date)) {
+            write(generator, recorders, start, true);
+        }
+    }
+
+    /**
+     * Streams the flightpath records of one or more drones as a JSON array.
+     *
+     * @param generator   Generator to write to.
+     * @param recorders   Flight recorder of each drone, the index being the drone id.
+     * @param start       Tick the calculation started at.
+     * @param withDroneId True to give each record the id of the drone that flew it.
+     * @throws IOException If the records cannot be written.
+     */
+    static void write(JsonGenerator generator, List<FlightRecorder> recorders, long start, boolean withDroneId)
+            throws IOException {
+        generator.writeStartArray();
+        for (int droneId = 0; droneId < recorders.size(); droneId++) {
+            flightpath(generator, recorders.get(droneId), start, withDroneId ? droneId : null);
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Writes the flightpaths of one or more drones to the compact binary file flightpath-{date}.bin, read back with
+     * {@link FlightpathReader}.
+     *
+     * @param date        Date of the flights.
+     * @param recorders   Flight recorder of each drone, the index being the drone id.
+     * @param start       Tick the calculation started at.
+     * @param withDroneId True if the JSON converted from the file gives each record the id of its drone.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeBinaryFile(String date, List<FlightRecorder> recorders, long start, boolean withDroneId)
+            throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream("flightpath-" + date + ".bin"))) {
+            BinaryFlightpath.write(out, recorders, start, withDroneId);
+        }
+    }
+
+    private static JsonGenerator open(String date) throws IOException {
+        return JsonOutput.open("flightpath-" + date + ".json");
     }
 
 }
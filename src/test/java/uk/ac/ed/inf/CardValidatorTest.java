@@ -0,0 +1,153 @@
+package uk.ac.ed.inf;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit test checking the CardValidator kernels against the checks Order used to make with strings and boxed values.
+ */
+public class CardValidatorTest
+        extends TestCase {
+    private static final int SAMPLES = 200_000;
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public CardValidatorTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(CardValidatorTest.class);
+    }
+
+    /**
+     * Card numbers match the old length, digit and prefix checks plus the Luhn checksum, which the old check skipped.
+     */
+    public void testCardNumberMatchesOldChecksPlusLuhn() {
+        Random random = new Random(15);
+        for (int i = 0; i < SAMPLES; i++) {
+            String number = randomCardNumber(random);
+            boolean expected = oldCardNumber(number) && luhn(number);
+            assertEquals(number, expected, CardValidator.isValidCardNumber(number));
+        }
+        assertTrue(CardValidator.isValidCardNumber("4000000000000002"));
+        assertFalse(CardValidator.isValidCardNumber("4000000000000001"));
+        assertTrue(CardValidator.isValidCardNumber("2221000000000009"));
+        assertFalse(CardValidator.isValidCardNumber("3000000000000004"));
+        assertFalse(CardValidator.isValidCardNumber(null));
+    }
+
+    /**
+     * Cvvs match the old check.
+     */
+    public void testCvvMatchesOldCheck() {
+        Random random = new Random(16);
+        for (int i = 0; i < SAMPLES; i++) {
+            String cvv = randomString(random, "0123456789a ", random.nextInt(5));
+            assertEquals(cvv, cvv.length() == 3 && oldAllDigits(cvv), CardValidator.isValidCvv(cvv));
+        }
+    }
+
+    /**
+     * Expiry dates match the old check for every real month, and are rejected instead of throwing or being accepted
+     * when the month or year is not a two digit number from 01 to 12.
+     */
+    public void testExpiryMatchesOldCheckForRealMonths() {
+        Random random = new Random(17);
+        for (int i = 0; i < SAMPLES; i++) {
+            String expiry = randomString(random, "0123456789/", 4 + random.nextInt(3));
+            String orderDate = String.format("20%02d-%02d-01", random.nextInt(30), 1 + random.nextInt(12));
+            Boolean old = oldExpiry(expiry, orderDate);
+            boolean realMonth = expiry.length() == 5 && expiry.charAt(2) == '/'
+                    && CardValidator.isAllDigits(expiry.substring(0, 2)) && CardValidator.isAllDigits(expiry.substring(3))
+                    && Integer.parseInt(expiry.substring(0, 2)) >= 1 && Integer.parseInt(expiry.substring(0, 2)) <= 12;
+            boolean expected = realMonth && Boolean.TRUE.equals(old);
+            assertEquals(expiry + " " + orderDate, expected, CardValidator.isValidExpiry(expiry, orderDate));
+        }
+        assertTrue(CardValidator.isValidExpiry("04/23", "2023-04-30"));
+        assertFalse(CardValidator.isValidExpiry("03/23", "2023-04-01"));
+        assertFalse(CardValidator.isValidExpiry("13/23", "2023-04-01"));
+        assertFalse(CardValidator.isValidExpiry("+4/24", "2023-04-01"));
+        assertFalse(CardValidator.isValidExpiry("04/28", null));
+        assertFalse(CardValidator.isValidExpiry("04/28", "2023"));
+    }
+
+    private static String randomCardNumber(Random random) {
+        String[] prefixes = {"4", "51", "55", "56", "2221", "2720", "2721", "3", ""};
+        String prefix = prefixes[random.nextInt(prefixes.length)];
+        int length = random.nextInt(10) == 0 ? 15 + random.nextInt(3) : 16;
+        String digits = prefix + randomString(random, "0123456789", Math.max(0, length - prefix.length()));
+        return random.nextInt(50) == 0 ? digits.replace('7', 'x') : digits;
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    private static boolean luhn(String number) {
+        int sum = 0;
+        for (int i = 0; i < number.length(); i++) {
+            int digit = number.charAt(number.length() - 1 - i) - '0';
+            if (i % 2 == 1) {
+                digit = digit * 2 > 9 ? digit * 2 - 9 : digit * 2;
+            }
+            sum += digit;
+        }
+        return sum % 10 == 0;
+    }
+
+    private static boolean oldAllDigits(String numToCheck) {
+        List<Character> digits = List.of('0', '1', '2', '3', '4', '5', '6', '7', '8', '9');
+        for (int i = 0; i < numToCheck.length(); i++) {
+            if (!digits.contains(numToCheck.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean oldCardNumber(String number) {
+        if (number == null || number.length() != 16 || !oldAllDigits(number)) {
+            return false;
+        }
+        int first = Character.getNumericValue(number.charAt(0));
+        int firstTwo = Integer.parseInt(number.substring(0, 2));
+        int firstFour = Integer.parseInt(number.substring(0, 4));
+        return (firstTwo >= 51 && firstTwo <= 55) || (firstFour >= 2221 && firstFour <= 2720) || (first == 4);
+    }
+
+    /**
+     * The old expiry check, returning null where it threw on a field that was not a number.
+     */
+    private static Boolean oldExpiry(String expiry, String orderDate) {
+        int orderYear = Integer.parseInt(orderDate.substring(2, 4));
+        int orderMonth = Integer.parseInt(orderDate.substring(5, 7));
+        if (expiry.contains("/")) {
+            String[] monYr = expiry.split("/");
+            if (monYr.length == 2 && monYr[0].length() == 2 && monYr[1].length() == 2) {
+                try {
+                    int month = Integer.parseInt(monYr[0]);
+                    int year = Integer.parseInt(monYr[1]);
+                    return (year == orderYear && month >= orderMonth) || (year > orderYear && month <= 12);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return false;
+    }
+}
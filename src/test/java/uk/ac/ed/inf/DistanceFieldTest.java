@@ -0,0 +1,72 @@
+package uk.ac.ed.inf;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Unit test for the field of moves home around a NoFlyZone.
+ */
+public class DistanceFieldTest
+        extends TestCase {
+    private static final LngLat APPLETON = TestFixtures.APPLETON;
+    private static final Restaurant CIVERINOS = TestFixtures.CIVERINOS;
+
+    private Map map;
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public DistanceFieldTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(DistanceFieldTest.class);
+    }
+
+    @Override
+    protected void setUp() throws IOException {
+        this.map = TestFixtures.map(new Restaurant[]{CIVERINOS}, TestFixtures.wall());
+    }
+
+    /**
+     * Home is no moves away, the inside of the NoFlyZone cannot reach it, and the restaurant behind the NoFlyZone is
+     * further than the straight line.
+     */
+    public void testMovesHome() {
+        DistanceField field = this.map.getDistanceField();
+        assertSame(field, this.map.getDistanceField());
+        assertEquals(0, field.movesHome(APPLETON.lng(), APPLETON.lat()));
+        assertEquals(DistanceField.UNREACHABLE, field.movesHome(-3.189, 55.9447));
+
+        LngLat restaurant = CIVERINOS.getLngLat();
+        int moves = field.movesHome(restaurant.lng(), restaurant.lat());
+        assertTrue(moves > APPLETON.distanceTo(restaurant) / LngLat.MOVE_DIST);
+    }
+
+    /**
+     * The path home around the NoFlyZone is legal, ends close to home and takes at most two moves more than A*, which
+     * finds the fewest.
+     */
+    public void testPathHomeIsLegalAndNearShortest() {
+        LngLat restaurant = CIVERINOS.getLngLat();
+        List<Direction> moves = this.map.getDistanceField().plan(restaurant, APPLETON, true);
+        LngLat position = restaurant;
+        for (Direction d : moves) {
+            LngLat next = position.nextPosition(d);
+            assertTrue(DronePos.isLegalMove(this.map, position, next, true));
+            position = next;
+        }
+        assertTrue(position.closeTo(APPLETON));
+        assertTrue(moves.size() <= new AStarPlanner(this.map).plan(restaurant, APPLETON, true).size() + 2);
+    }
+}
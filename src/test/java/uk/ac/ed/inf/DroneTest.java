@@ -0,0 +1,112 @@
+package uk.ac.ed.inf;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Unit test for adding orders to a drone that is already flying.
+ */
+public class DroneTest
+        extends TestCase {
+    private static final Restaurant CIVERINOS = TestFixtures.CIVERINOS;
+    private static final Restaurant DOMINOS = TestFixtures.DOMINOS;
+    private static final Restaurant[] RESTAURANTS = {CIVERINOS, DOMINOS};
+
+    private Map map;
+    private OrderValidator validator;
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public DroneTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(DroneTest.class);
+    }
+
+    @Override
+    protected void setUp() throws IOException {
+        this.map = TestFixtures.map(RESTAURANTS);
+        this.validator = new OrderValidator(RESTAURANTS);
+    }
+
+    private ValidationResult result(String orderNo, int total, String... pizzas) {
+        return this.validator.validate(new Order(orderNo, "2023-01-01", "Gilberto Handshoe", "2221699792078220",
+                "04/28", "922", total, pizzas));
+    }
+
+    private Drone drone(PathCache pathCache, ValidationResult... orders) {
+        return Drone.forValidOrders(this.map, List.of(orders), RESTAURANTS, pathCache, TickSource.simulated(1));
+    }
+
+    private static void fly(Drone drone, int moves) {
+        for (int i = 0; i < moves && !drone.flightFinished && drone.getMovesRemaining() > 0; i++) {
+            drone.move();
+        }
+    }
+
+    /**
+     * Orders added mid-flight are delivered after the trip under way, and the moves already flown are kept.
+     */
+    public void testOrdersAddedMidFlightKeepMovesFlown() {
+        PathCache pathCache = new PathCache();
+        ValidationResult civerinos = result("1AFFE082", 2500, "Margarita", "Calzone");
+        ValidationResult dominos = result("2BEEF000", 1500, "Meat Lover");
+        ValidationResult invalid = result("3CAFE111", 1000, "Margarita");
+
+        Drone reference = drone(pathCache, civerinos);
+        fly(reference, 10);
+        Drone drone = drone(pathCache, civerinos);
+        fly(drone, 10);
+        assertEquals(1, drone.addOrders(List.of(civerinos, dominos, invalid)));
+        assertEquals(0, drone.addOrders(List.of(dominos)));
+        fly(drone, Drone.BATTERY_MOVES);
+
+        FlightRecorder flown = drone.getFlightRecorder();
+        FlightRecorder before = reference.getFlightRecorder();
+        for (int i = 0; i < before.size(); i++) {
+            assertEquals(before.direction(i), flown.direction(i));
+            assertEquals(before.lng(i + 1), flown.lng(i + 1));
+            assertEquals(before.lat(i + 1), flown.lat(i + 1));
+            assertEquals(before.orderNo(i), flown.orderNo(i));
+        }
+        assertEquals(List.of(civerinos, dominos), drone.getDelivered());
+        assertEquals(Drone.BATTERY_MOVES - flown.size(), drone.getMovesRemaining().intValue());
+    }
+
+    /**
+     * A drone whose flight has finished resumes from Appleton Tower with the battery it has left.
+     */
+    public void testFinishedDroneResumes() {
+        PathCache pathCache = new PathCache();
+        ValidationResult civerinos = result("1AFFE082", 2500, "Margarita", "Calzone");
+        ValidationResult dominos = result("2BEEF000", 1500, "Meat Lover");
+
+        Drone drone = drone(pathCache, civerinos);
+        fly(drone, Drone.BATTERY_MOVES);
+        assertTrue(drone.flightFinished);
+        int movesFirstFlight = drone.getFlightRecorder().size();
+        assertEquals(1, drone.addOrders(List.of(dominos)));
+        assertFalse(drone.flightFinished);
+        fly(drone, Drone.BATTERY_MOVES);
+
+        assertTrue(drone.flightFinished);
+        assertEquals(List.of(civerinos, dominos), drone.getDelivered());
+        assertTrue(drone.getFlightRecorder().size() > movesFirstFlight);
+        assertEquals(Drone.BATTERY_MOVES - drone.getFlightRecorder().size(), drone.getMovesRemaining().intValue());
+        FlightRecorder flown = drone.getFlightRecorder();
+        LngLat end = new LngLat(flown.lng(flown.size()), flown.lat(flown.size()));
+        assertTrue(end.closeTo(new LngLat(-3.186874, 55.944494)));
+    }
+}
@@ -0,0 +1,114 @@
+package uk.ac.ed.inf;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit test for writing binary flightpaths and reading them back with FlightpathReader.
+ */
+public class FlightpathReaderTest
+        extends TestCase {
+    private Path file;
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public FlightpathReaderTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(FlightpathReaderTest.class);
+    }
+
+    @Override
+    protected void setUp() throws IOException {
+        this.file = Files.createTempFile("flightpath", ".bin");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    /**
+     * Every move of a fleet reads back by its index with the same drone, tick, order, direction and positions, to the
+     * bit, including positions that do not follow from their move and a drone that never moved.
+     */
+    public void testRandomAccessMatchesRecorders() throws IOException {
+        List<FlightRecorder> fleet = List.of(TestFixtures.flight(new Random(1), 1000),
+                TestFixtures.flight(new Random(2), 0), TestFixtures.flight(new Random(3), 64),
+                TestFixtures.flight(new Random(4), 129));
+        write(fleet, true);
+        try (FlightpathReader reader = FlightpathReader.open(this.file)) {
+            assertEquals(4, reader.droneCount());
+            assertEquals(1000 + 64 + 129, reader.size());
+            double[] from = new double[2];
+            double[] to = new double[2];
+            int move = 0;
+            for (int droneId = 0; droneId < fleet.size(); droneId++) {
+                FlightRecorder recorder = fleet.get(droneId);
+                for (int i = 0; i < recorder.size(); i++, move++) {
+                    assertEquals(droneId, reader.droneId(move));
+                    assertEquals(recorder.tick(i), reader.tick(move));
+                    assertEquals(recorder.orderNo(i), reader.orderNo(move));
+                    assertEquals(recorder.direction(i), reader.direction(move));
+                    reader.from(move, from);
+                    reader.to(move, to);
+                    assertEquals(recorder.lng(i), from[0]);
+                    assertEquals(recorder.lat(i), from[1]);
+                    assertEquals(recorder.lng(i + 1), to[0]);
+                    assertEquals(recorder.lat(i + 1), to[1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Converting a binary file gives the same JSON as writing the flightpath directly, with and without drone ids.
+     */
+    public void testJsonMatchesWriteFlightpath() throws IOException {
+        List<FlightRecorder> fleet = List.of(TestFixtures.flight(new Random(5), 300),
+                TestFixtures.flight(new Random(6), 70));
+        for (boolean withDroneId : new boolean[]{false, true}) {
+            write(fleet, withDroneId);
+            assertEquals(TestFixtures.json(generator -> WriteFlightpath.write(generator, fleet, 1000, withDroneId)),
+                    TestFixtures.json(generator -> {
+                        try (FlightpathReader reader = FlightpathReader.open(this.file)) {
+                            reader.writeJson(generator);
+                        }
+                    }));
+        }
+    }
+
+    /**
+     * Files in another format are rejected.
+     */
+    public void testRejectsOtherFiles() throws IOException {
+        Files.writeString(this.file, "[{\"orderNo\":\"no_order\"}]");
+        try (FlightpathReader reader = FlightpathReader.open(this.file)) {
+            fail("Expected an IOException, read " + reader.size() + " moves");
+        } catch (IOException expected) {
+            assertEquals("Not a binary flightpath file", expected.getMessage());
+        }
+    }
+
+    private void write(List<FlightRecorder> recorders, boolean withDroneId) throws IOException {
+        try (OutputStream out = Files.newOutputStream(this.file)) {
+            BinaryFlightpath.write(out, recorders, 1000, withDroneId);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package uk.ac.ed.inf;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Unit test for the primitive long set used by the closed sets of searches.
+ */
+public class LongHashSetTest
+        extends TestCase {
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public LongHashSetTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(LongHashSetTest.class);
+    }
+
+    /**
+     * Keys are only added once, including the key marking a free slot, zero and negative keys.
+     */
+    public void testAddsEachKeyOnce() {
+        LongHashSet set = new LongHashSet();
+        for (long key : new long[]{Long.MIN_VALUE, 0, -1, Long.MAX_VALUE}) {
+            assertFalse(set.contains(key));
+            assertTrue(set.add(key));
+            assertTrue(set.contains(key));
+            assertFalse(set.add(key));
+        }
+        assertEquals(4, set.size());
+        assertFalse(set.contains(1));
+    }
+
+    /**
+     * The set agrees with a HashSet while growing far past its initial capacity, with packed cell keys that only
+     * differ in their high bits.
+     */
+    public void testMatchesHashSetWhileGrowing() {
+        LongHashSet set = new LongHashSet(4);
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            long key = ((long) random.nextInt(300) << 32) ^ (random.nextInt(300) & 0xffffffffL);
+            assertEquals(expected.add(key), set.add(key));
+        }
+        assertEquals(expected.size(), set.size());
+        for (int i = 0; i < 1000; i++) {
+            long key = ((long) random.nextInt(400) << 32) ^ (random.nextInt(400) & 0xffffffffL);
+            assertEquals(expected.contains(key), set.contains(key));
+        }
+    }
+}
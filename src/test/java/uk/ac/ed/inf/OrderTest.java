@@ -0,0 +1,104 @@
+package uk.ac.ed.inf;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit test for pricing and validating orders against a MenuIndex.
+ */
+public class OrderTest
+        extends TestCase {
+    private static final Restaurant CIVERINOS = TestFixtures.CIVERINOS;
+    private static final Restaurant DOMINOS = TestFixtures.DOMINOS;
+    private static final MenuIndex MENU_INDEX = new MenuIndex(new Restaurant[]{CIVERINOS, DOMINOS});
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public OrderTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(OrderTest.class);
+    }
+
+    private static Order order(Integer total, String... pizzas) {
+        return new Order("1AFFE082", "2023-01-01", "Gilberto Handshoe", "2221699792078220", "04/28", "922", total,
+                pizzas);
+    }
+
+    /**
+     * The total is the sum of the pizzas plus the delivery fee, and the supplier is set.
+     */
+    public void testDeliveryCostOfValidOrder() throws InvalidPizzaCombinationException {
+        Order order = order(2500, "Margarita", "Calzone");
+        assertEquals(2500, order.getDeliveryCost(MENU_INDEX));
+        assertSame(CIVERINOS, order.getOrderRestaurant());
+        assertNull(order.getOrderOutcome());
+    }
+
+    /**
+     * Each invalid combination gets its own outcome.
+     */
+    public void testInvalidCombinationsSetOutcome() {
+        assertOutcome(order(1100, "Margarita", "Pineapple"), OrderOutcome.InvalidPizzaNotDefined);
+        assertOutcome(order(2500, "Margarita", "Meat Lover"), OrderOutcome.InvalidPizzaCombinationMultipleSuppliers);
+        assertOutcome(order(100), OrderOutcome.InvalidPizzaCount);
+        assertOutcome(order(5100, "Margarita", "Margarita", "Margarita", "Margarita", "Margarita"),
+                OrderOutcome.InvalidPizzaCount);
+    }
+
+    /**
+     * An undefined pizza is reported instead of mixed suppliers, and validation keeps the combination outcome instead
+     * of reporting the total, which is invalid if wrong or missing.
+     */
+    public void testValidationKeepsCombinationOutcome() {
+        OrderValidator validator = new OrderValidator(MENU_INDEX);
+        Order order = order(2500, "Meat Lover", "Margarita", "Pineapple");
+        assertEquals(OrderOutcome.InvalidPizzaNotDefined, validator.validate(order).outcome());
+
+        ValidationResult wrongTotal = validator.validate(order(2400, "Margarita", "Calzone"));
+        assertEquals(OrderOutcome.InvalidTotal, wrongTotal.outcome());
+        assertEquals(2500, wrongTotal.costInPence());
+        assertEquals(OrderOutcome.InvalidTotal, validator.validate(order(null, "Margarita", "Calzone")).outcome());
+    }
+
+    /**
+     * Validating in parallel leaves the orders untouched and keeps their order.
+     */
+    public void testValidateAllIsSideEffectFree() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            orders.add(i % 2 == 0 ? order(1100, "Margarita") : order(1100, "Meat Lover", "Calzone"));
+        }
+        List<ValidationResult> results = new OrderValidator(MENU_INDEX).validateAll(orders);
+        for (int i = 0; i < orders.size(); i++) {
+            assertSame(orders.get(i), results.get(i).order());
+            assertNull(orders.get(i).getOrderOutcome());
+        }
+        assertEquals(OrderOutcome.ValidButNotDelivered, results.get(0).outcome());
+        assertSame(CIVERINOS, results.get(0).supplier());
+        assertEquals(OrderOutcome.InvalidPizzaCombinationMultipleSuppliers, results.get(1).outcome());
+        assertEquals(500, OrderValidator.valid(results).size());
+    }
+
+    private static void assertOutcome(Order order, OrderOutcome outcome) {
+        try {
+            order.getDeliveryCost(MENU_INDEX);
+            fail("Expected " + outcome);
+        } catch (InvalidPizzaCombinationException e) {
+            assertEquals(outcome, order.getOrderOutcome());
+            assertEquals(Integer.valueOf(0), order.deliveryCostInPence());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package uk.ac.ed.inf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Unit test for the planning service, planning posted orders on a warm planner.
+ */
+public class PlanningServiceTest
+        extends TestCase {
+    private static final Restaurant CIVERINOS = TestFixtures.CIVERINOS;
+    private static final String ORDERS = "[" +
+            order("1AFFE082", "2221699792078220", 2500) + "," +
+            order("2BEEF000", "2221699792078221", 2500) + "," +
+            order("3CAFE111", "2221699792078220", 1100) + "]";
+
+    private PlanningService service;
+    private DeliveryPlanner planner;
+    private URI plan;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public PlanningServiceTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(PlanningServiceTest.class);
+    }
+
+    private static String order(String orderNo, String card, int total) {
+        return order("\"" + orderNo + "\"", "\"2023-01-01\"", card, total);
+    }
+
+    private static String order(String orderNo, String orderDate, String card, Integer total) {
+        return "{\"orderNo\":" + orderNo + ",\"orderDate\":" + orderDate + ",\"customer\":\"Gilberto Handshoe\"," +
+                "\"creditCardNumber\":\"" + card + "\",\"creditCardExpiry\":\"04/28\",\"cvv\":\"922\"," +
+                "\"priceTotalInPence\":" + total + ",\"orderItems\":[\"Margarita\",\"Calzone\"]}";
+    }
+
+    @Override
+    protected void setUp() throws IOException {
+        Restaurant[] restaurants = {CIVERINOS};
+        Map map = TestFixtures.map(restaurants);
+        this.planner = new DeliveryPlanner(map, restaurants, new PathCache(), 1, false, TickSource.simulated(1));
+        this.service = new PlanningService(this.planner, new Orders("http://localhost"));
+        InetSocketAddress address = this.service.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        this.plan = URI.create("http://localhost:" + address.getPort() + PlanningService.PLAN_PATH);
+    }
+
+    @Override
+    protected void tearDown() {
+        this.service.stop(0);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return this.client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Posted orders are planned and answered with the deliveries and flightpath the planner writes to the day's
+     * files, on every request.
+     */
+    public void testPlansPostedOrders() throws IOException, InterruptedException {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        DeliveryPlanner.DayPlan direct = this.planner.plan(
+                List.of(new ObjectMapper().readValue(ORDERS, Order[].class)));
+        try (var generator = JsonOutput.generator(expected)) {
+            PlanningService.write(generator, direct);
+        }
+        assertEquals(OrderOutcome.Delivered, direct.results().get(0).outcome());
+        assertEquals(OrderOutcome.InvalidCardNumber, direct.results().get(1).outcome());
+        assertEquals(OrderOutcome.InvalidTotal, direct.results().get(2).outcome());
+        assertTrue(direct.recorders().get(0).size() > 0);
+
+        for (int i = 0; i < 3; i++) {
+            HttpResponse<String> response = send(HttpRequest.newBuilder(this.plan)
+                    .POST(HttpRequest.BodyPublishers.ofString(ORDERS)));
+            assertEquals(200, response.statusCode());
+            assertEquals("application/json", response.headers().firstValue("Content-Type").orElse(null));
+            assertEquals(expected.toString(StandardCharsets.UTF_8), response.body());
+        }
+    }
+
+    /**
+     * Requests that cannot be planned are answered with an error instead of a plan.
+     */
+    public void testRejectsBadRequests() throws IOException, InterruptedException {
+        assertEquals(400, send(HttpRequest.newBuilder(this.plan)
+                .POST(HttpRequest.BodyPublishers.ofString("{"))).statusCode());
+        assertEquals(400, send(HttpRequest.newBuilder(URI.create(this.plan + "?date=2023-13-01"))).statusCode());
+        assertEquals(400, send(HttpRequest.newBuilder(URI.create(this.plan + "?date=2022-12-31"))).statusCode());
+        assertEquals(400, send(HttpRequest.newBuilder(this.plan)).statusCode());
+        assertEquals(405, send(HttpRequest.newBuilder(this.plan).DELETE()).statusCode());
+        assertEquals(404, send(HttpRequest.newBuilder(URI.create(this.plan + "s"))).statusCode());
+    }
+
+    /**
+     * Posted orders without a number, without a date formatted as YYYY-MM-DD or without a total are rejected before
+     * planning.
+     */
+    public void testRejectsOrdersWithoutNumberDateOrTotal() throws IOException, InterruptedException {
+        for (String order : new String[]{
+                order("\"1AFFE082\"", "null", "2221699792078220", 2500),
+                order("\"1AFFE082\"", "\"2023\"", "2221699792078220", 2500),
+                order("\"1AFFE082\"", "\"01/01/2023\"", "2221699792078220", 2500),
+                order("null", "\"2023-01-01\"", "2221699792078220", 2500),
+                order("\"1AFFE082\"", "\"2023-01-01\"", "2221699792078220", null),
+                "null"}) {
+            HttpResponse<String> response = send(HttpRequest.newBuilder(this.plan)
+                    .POST(HttpRequest.BodyPublishers.ofString("[" + order + "]")));
+            assertEquals(order, 400, response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package uk.ac.ed.inf;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit test for RestClient against a local stand-in for the REST server.
+ */
+public class RestClientTest
+        extends TestCase {
+    private static final String CENTRAL_AREA = "[{\"name\": \"Forrest Hill\", \"longitude\": -3.192473, " +
+            "\"latitude\": 55.946233}, {\"name\": \"KFC\", \"longitude\": -3.184319, \"latitude\": 55.946233}]";
+
+    private HttpServer server;
+    private URL base;
+    private Path snapshotDirectory;
+    private final AtomicInteger fullResponses = new AtomicInteger();
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public RestClientTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(RestClientTest.class);
+    }
+
+    @Override
+    protected void setUp() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.setExecutor(Executors.newCachedThreadPool());
+        this.server.createContext("/centralArea", exchange -> respond(exchange, 200, CENTRAL_AREA));
+        this.server.createContext("/missing", exchange -> respond(exchange, 404, "not found"));
+        this.server.createContext("/versioned", exchange -> {
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+            } else {
+                this.fullResponses.incrementAndGet();
+                respond(exchange, 200, CENTRAL_AREA);
+            }
+        });
+        this.server.start();
+        this.base = new URL("http://localhost:" + this.server.getAddress().getPort());
+        this.snapshotDirectory = Files.createTempDirectory("snapshots");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        this.server.stop(0);
+        try (var files = Files.walk(this.snapshotDirectory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * The endpoint is deserialized, ignoring properties the class does not have.
+     */
+    public void testFetchAsyncDeserializes() {
+        LngLat[] coords = new RestClient(this.base).fetchAsync("/centralArea", LngLat[].class).join();
+        assertEquals(2, coords.length);
+        assertEquals(new LngLat(-3.192473, 55.946233), coords[0]);
+    }
+
+    /**
+     * Base and endpoint are joined with exactly one slash whichever of them has one.
+     */
+    public void testResolveJoinsWithOneSlash() throws Exception {
+        String expected = this.base + "/centralArea";
+        assertEquals(expected, new RestClient(this.base).resolve("/centralArea").toString());
+        assertEquals(expected, new RestClient(this.base).resolve("centralArea").toString());
+        assertEquals(expected, new RestClient(new URL(this.base + "/")).resolve("/centralArea").toString());
+        assertEquals(2, new RestClient(new URL(this.base + "/")).deserialize("centralArea", LngLat[].class).length);
+    }
+
+    /**
+     * A response other than 200 OK fails the future, and the blocking call returns null.
+     */
+    public void testErrorStatusFails() {
+        RestClient client = new RestClient(this.base);
+        try {
+            client.fetchAsync("/missing", LngLat[].class).join();
+            fail("Expected the fetch to fail");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause().getMessage().contains("404"));
+        }
+        assertNull(client.deserialize("/missing", LngLat[].class));
+    }
+
+    /**
+     * Fetches are in flight at the same time: the stand-in only answers once every request has arrived.
+     */
+    public void testFetchesRunConcurrently() {
+        int requests = 4;
+        CountDownLatch arrived = new CountDownLatch(requests);
+        this.server.createContext("/slow", exchange -> {
+            arrived.countDown();
+            try {
+                boolean all = arrived.await(10, TimeUnit.SECONDS);
+                respond(exchange, all ? 200 : 503, CENTRAL_AREA);
+            } catch (InterruptedException e) {
+                respond(exchange, 503, "interrupted");
+            }
+        });
+        RestClient client = new RestClient(this.base);
+        CompletableFuture<?>[] fetches = new CompletableFuture<?>[requests];
+        for (int i = 0; i < requests; i++) {
+            fetches[i] = client.fetchAsync("/slow/" + i, LngLat[].class);
+        }
+        CompletableFuture.allOf(fetches).join();
+    }
+
+    /**
+     * A snapshot is revalidated with its ETag, and the server only sends the body the first time.
+     */
+    public void testSnapshotRevalidatesWithETag() {
+        RestClient client = new RestClient(this.base, new SnapshotStore(this.snapshotDirectory, false));
+        assertEquals(2, client.fetchAsync("/versioned", LngLat[].class).join().length);
+        assertEquals(2, client.fetchAsync("/versioned", LngLat[].class).join().length);
+        assertEquals(1, this.fullResponses.get());
+    }
+
+    /**
+     * Offline, responses come from the snapshots alone, and an endpoint without a snapshot fails.
+     */
+    public void testOfflineUsesSnapshotOnly() {
+        new RestClient(this.base, new SnapshotStore(this.snapshotDirectory, false))
+                .fetchAsync("/versioned", LngLat[].class).join();
+        this.server.stop(0);
+        RestClient offline = new RestClient(this.base, new SnapshotStore(this.snapshotDirectory, true));
+        assertEquals(2, offline.fetchAsync("/versioned", LngLat[].class).join().length);
+        try {
+            offline.fetchAsync("/centralArea", LngLat[].class).join();
+            fail("Expected the fetch to fail");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause().getMessage().contains("offline"));
+        }
+    }
+
+    /**
+     * Online, a server that cannot be reached falls back to the snapshot.
+     */
+    public void testOutageFallsBackToSnapshot() {
+        RestClient client = new RestClient(this.base, new SnapshotStore(this.snapshotDirectory, false));
+        client.fetchAsync("/versioned", LngLat[].class).join();
+        this.server.stop(0);
+        assertEquals(2, client.fetchAsync("/versioned", LngLat[].class).join().length);
+    }
+
+    /**
+     * A complete response the client cannot parse is not kept as a snapshot, so it is never served offline.
+     */
+    public void testUnparseableBodyIsNotKept() {
+        this.server.createContext("/broken", exchange -> respond(exchange, 200, "[{\"longitude\": "));
+        try {
+            new RestClient(this.base, new SnapshotStore(this.snapshotDirectory, false))
+                    .fetchAsync("/broken", LngLat[].class).join();
+            fail("Expected the fetch to fail");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof UncheckedIOException);
+        }
+        RestClient offline = new RestClient(this.base, new SnapshotStore(this.snapshotDirectory, true));
+        try {
+            offline.fetchAsync("/broken", LngLat[].class).join();
+            fail("Expected the fetch to fail");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause().getMessage().contains("offline"));
+        }
+    }
+
+    /**
+     * Elements of an array are handed over one at a time in order, and a streamed response is kept as a snapshot.
+     */
+    public void testStreamAsyncConsumesElementsInOrder() {
+        List<LngLat> coords = new ArrayList<>();
+        RestClient client = new RestClient(this.base, new SnapshotStore(this.snapshotDirectory, false));
+        assertEquals(Integer.valueOf(2), client.streamAsync("/versioned", LngLat.class, coords::add).join());
+        assertEquals(List.of(new LngLat(-3.192473, 55.946233), new LngLat(-3.184319, 55.946233)), coords);
+
+        coords.clear();
+        RestClient offline = new RestClient(this.base, new SnapshotStore(this.snapshotDirectory, true));
+        assertEquals(Integer.valueOf(2), offline.streamAsync("/versioned", LngLat.class, coords::add).join());
+        assertEquals(2, coords.size());
+    }
+
+    /**
+     * Every request is counted with its latency, and every byte of the body is counted once it has been read.
+     */
+    public void testFetchIsMetered() {
+        Metrics.reset();
+        new RestClient(this.base, null).fetchAsync("/centralArea", LngLat[].class).join();
+        assertEquals(1, Metrics.get(Metrics.Counter.REST_REQUESTS));
+        assertEquals(CENTRAL_AREA.getBytes(StandardCharsets.UTF_8).length, Metrics.get(Metrics.Counter.REST_BYTES));
+        assertTrue(Metrics.get(Metrics.Counter.REST_LATENCY_NANOS) > 0);
+        assertEquals(1, Metrics.calls(Metrics.Phase.REST_FETCH));
+    }
+}
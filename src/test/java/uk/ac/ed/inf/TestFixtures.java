@@ -0,0 +1,107 @@
+package uk.ac.ed.inf;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Restaurants, NoFlyZone and Central Area shared by the unit tests, so that every test planning on a {@link Map} flies
+ * over the same area, and the random flights and json helpers of the tests of the output writers.
+ */
+final class TestFixtures {
+    static final LngLat APPLETON = new LngLat(-3.186874, 55.944494);
+    static final Restaurant CIVERINOS = new Restaurant("Civerinos Slice", -3.1912869, 55.945535,
+            new Menu[]{new Menu("Margarita", 1000), new Menu("Calzone", 1400)});
+    static final Restaurant DOMINOS = new Restaurant("Domino's Pizza - Central", -3.1838572, 55.9446249,
+            new Menu[]{new Menu("Meat Lover", 1400), new Menu("Vegan Delight", 1100)});
+
+    /**
+     * Corners of the Central Area as the REST server serves them.
+     */
+    private static final LngLat[] CENTRAL_AREA = {new LngLat(-3.192473, 55.946233), new LngLat(-3.192473, 55.942617),
+            new LngLat(-3.184319, 55.942617), new LngLat(-3.184319, 55.946233)};
+
+    private TestFixtures() {
+    }
+
+    private static ArrayList<Double> corner(double lng, double lat) {
+        return new ArrayList<>(List.of(lng, lat));
+    }
+
+    /**
+     * Gets a NoFlyZone standing between Appleton Tower and Civerinos, so that neither can see the other.
+     *
+     * @return The NoFlyZone.
+     */
+    static Area wall() {
+        return new Area("Wall", new ArrayList<>(List.of(corner(-3.1895, 55.9436), corner(-3.1885, 55.9436),
+                corner(-3.1885, 55.9458), corner(-3.1895, 55.9458), corner(-3.1895, 55.9436))));
+    }
+
+    /**
+     * Builds a map over the Central Area of the fixtures. The Central Area is a singleton, so this is the one place
+     * the tests set its corners, always to the same ones.
+     *
+     * @param restaurants Restaurants on the map.
+     * @param noFlyZones  NoFlyZones on the map.
+     * @return The map.
+     * @throws IOException If the map cannot be built.
+     */
+    static Map map(Restaurant[] restaurants, Area... noFlyZones) throws IOException {
+        CentralArea.setCoords(CENTRAL_AREA);
+        return new Map(restaurants, noFlyZones, CentralArea.getCentralAreaInstance("http://localhost"));
+    }
+
+    /**
+     * Records a random flight from Appleton Tower, with hovers, moves for no order, order numbers json must escape,
+     * ticks three apart from 1000, and now and then a position that does not follow from its move.
+     *
+     * @param random Source of the moves.
+     * @param moves  Number of moves to record.
+     * @return The recorded flight.
+     */
+    static FlightRecorder flight(Random random, int moves) {
+        FlightRecorder recorder = new FlightRecorder(APPLETON);
+        Direction[] directions = Direction.values();
+        String[] orderNos = {"1738F7D9", "A/B\\C\"D", "tab\there", "\u007F\u0085—é"};
+        double[] position = {APPLETON.lng(), APPLETON.lat()};
+        for (int i = 0; i < moves; i++) {
+            Direction direction = random.nextInt(10) == 0 ? null : directions[random.nextInt(directions.length)];
+            LngLat.nextPosition(position[0], position[1], direction, position);
+            if (random.nextInt(50) == 0) {
+                position[0] += 1e-9;
+            }
+            int order = random.nextInt(5) == 0 ? FlightRecorder.NO_ORDER
+                    : recorder.orderIndex(orderNos[random.nextInt(orderNos.length)]);
+            recorder.record(position[0], position[1], direction, 1000 + i * 3L, order);
+        }
+        return recorder;
+    }
+
+    /**
+     * Writes json with a generator set up as for the output files.
+     *
+     * @param body Writes the json to the generator.
+     * @return The json written.
+     * @throws IOException If the json cannot be written.
+     */
+    static String json(JsonBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = JsonOutput.generator(out)) {
+            body.write(generator);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Json written to a generator by a test.
+     */
+    interface JsonBody {
+        void write(JsonGenerator generator) throws IOException;
+    }
+}
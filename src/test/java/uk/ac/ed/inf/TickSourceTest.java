@@ -0,0 +1,65 @@
+package uk.ac.ed.inf;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for the monotonic and simulated tick sources.
+ */
+public class TickSourceTest
+        extends TestCase {
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public TickSourceTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(TickSourceTest.class);
+    }
+
+    /**
+     * A simulated source advances by its step on every read, and a fork continues from the current tick without
+     * advancing or being advanced by the source it was forked from.
+     */
+    public void testSimulatedTicksAreReproducible() {
+        TickSource source = TickSource.simulated(2);
+        assertEquals(0, source.ticks());
+        assertEquals(2, source.ticks());
+        TickSource fork = source.fork();
+        TickSource otherFork = source.fork();
+        assertEquals(4, fork.ticks());
+        assertEquals(6, fork.ticks());
+        assertEquals(4, otherFork.ticks());
+        assertEquals(4, source.ticks());
+        assertEquals(0, TickSource.simulated(0).fork().ticks());
+        try {
+            TickSource.simulated(-1);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            assertEquals("A simulated tick source cannot go backwards", expected.getMessage());
+        }
+    }
+
+    /**
+     * The monotonic source never goes backwards and is shared by every fork.
+     */
+    public void testMonotonicTicksNeverGoBackwards() {
+        TickSource source = TickSource.monotonic();
+        assertSame(source, source.fork());
+        long previous = source.ticks();
+        for (int i = 0; i < 100_000; i++) {
+            long tick = source.ticks();
+            assertTrue(tick >= previous);
+            previous = tick;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package uk.ac.ed.inf;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Unit test for planning around a NoFlyZone on the visibility graph.
+ */
+public class VisibilityGraphPlannerTest
+        extends TestCase {
+    private static final LngLat APPLETON = TestFixtures.APPLETON;
+    private static final Restaurant CIVERINOS = TestFixtures.CIVERINOS;
+
+    private Map map;
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public VisibilityGraphPlannerTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(VisibilityGraphPlannerTest.class);
+    }
+
+    @Override
+    protected void setUp() throws IOException {
+        this.map = TestFixtures.map(new Restaurant[]{CIVERINOS}, TestFixtures.wall());
+    }
+
+    /**
+     * Both legs around the NoFlyZone are legal, end close to their target and take at most two moves more than A*,
+     * which finds the fewest.
+     */
+    public void testPathsAroundZoneAreLegalAndShortest() {
+        VisibilityGraphPlanner planner = this.map.getVisibilityGraphPlanner();
+        assertSame(planner, this.map.getVisibilityGraphPlanner());
+        assertEquals(6, planner.size());
+        AStarPlanner aStar = new AStarPlanner(this.map);
+        for (boolean onReturn : new boolean[]{false, true}) {
+            LngLat start = onReturn ? CIVERINOS.getLngLat() : APPLETON;
+            LngLat target = onReturn ? APPLETON : CIVERINOS.getLngLat();
+            assertFalse(DronePos.isLegalMove(this.map, start, target, onReturn));
+
+            List<Direction> moves = planner.plan(start, target, onReturn);
+            LngLat position = start;
+            for (Direction d : moves) {
+                LngLat next = position.nextPosition(d);
+                assertTrue(DronePos.isLegalMove(this.map, position, next, onReturn));
+                position = next;
+            }
+            assertTrue(position.closeTo(target));
+            assertTrue(moves.size() <= aStar.plan(start, target, onReturn).size() + 2);
+        }
+    }
+
+    /**
+     * The shortest path bends at the pushed out corners of the NoFlyZone and not at any other vertex.
+     */
+    public void testShortestPathBendsAtCorners() {
+        double[] waypoints = this.map.getVisibilityGraphPlanner().shortestPath(APPLETON, CIVERINOS.getLngLat());
+        assertEquals(6, waypoints.length);
+        for (int i = 0; i < 4; i += 2) {
+            assertTrue(waypoints[i] > -3.1895 - LngLat.MOVE_DIST * 4 && waypoints[i] < -3.1885 + LngLat.MOVE_DIST * 4);
+            assertTrue(waypoints[i + 1] > 55.9458);
+        }
+        assertEquals(CIVERINOS.getLngLat().lng(), waypoints[4]);
+        assertEquals(CIVERINOS.getLngLat().lat(), waypoints[5]);
+    }
+}
@@ -0,0 +1,119 @@
+package uk.ac.ed.inf;
+
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.FeatureCollection;
+import com.mapbox.geojson.LineString;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit test checking that the streaming writers produce the same bytes as the json-simple and GeoJson writers they
+ * replaced.
+ */
+public class WriteOutputTest
+        extends TestCase {
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public WriteOutputTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(WriteOutputTest.class);
+    }
+
+    /**
+     * Flightpaths of a single drone and of a fleet match json-simple, including escaped order numbers.
+     */
+    public void testFlightpathMatchesJsonSimple() throws IOException {
+        List<FlightRecorder> fleet = List.of(TestFixtures.flight(new Random(1), 500),
+                TestFixtures.flight(new Random(2), 300));
+        assertEquals(jsonSimpleFlightpath(fleet.subList(0, 1), 7, false),
+                TestFixtures.json(generator -> WriteFlightpath.write(generator, fleet.subList(0, 1), 7, false)));
+        assertEquals(jsonSimpleFlightpath(fleet, 7, true),
+                TestFixtures.json(generator -> WriteFlightpath.write(generator, fleet, 7, true)));
+    }
+
+    /**
+     * Deliveries match json-simple.
+     */
+    public void testDeliveriesMatchJsonSimple() throws IOException {
+        List<ValidationResult> results = new ArrayList<>();
+        OrderOutcome[] outcomes = OrderOutcome.values();
+        for (int i = 0; i < 50; i++) {
+            Order order = new Order(String.format("%08X", i * 7919), "2023-01-01", "C", "4000000000000002", "04/28",
+                    "123", 1100, new String[]{"Margarita"});
+            results.add(new ValidationResult(order, outcomes[i % outcomes.length], null, i * 100));
+        }
+        JSONArray expected = new JSONArray();
+        for (ValidationResult result : results) {
+            JSONObject object = new JSONObject();
+            object.put("orderNo", result.order().getOrderNo());
+            object.put("outcome", result.outcome().toString());
+            object.put("costInPence", result.costInPence());
+            expected.add(object);
+        }
+        assertEquals(expected.toJSONString(),
+                TestFixtures.json(generator -> WriteDeliveries.write(generator, results)));
+    }
+
+    /**
+     * Drone GeoJson of a single drone and of a fleet matches the GeoJson library, including its rounding.
+     */
+    public void testDroneMatchesGeoJson() throws IOException {
+        List<FlightRecorder> fleet = List.of(TestFixtures.flight(new Random(3), 400),
+                TestFixtures.flight(new Random(4), 1), TestFixtures.flight(new Random(5), 0));
+        assertEquals(geoJson(fleet.subList(0, 1)),
+                TestFixtures.json(generator -> WriteDrone.write(generator, fleet.subList(0, 1))));
+        assertEquals(geoJson(fleet), TestFixtures.json(generator -> WriteDrone.write(generator, fleet)));
+    }
+
+    private static String jsonSimpleFlightpath(List<FlightRecorder> recorders, long start, boolean withDroneId) {
+        JSONArray flightpathArray = new JSONArray();
+        for (int droneId = 0; droneId < recorders.size(); droneId++) {
+            FlightRecorder recorder = recorders.get(droneId);
+            for (int i = 0; i < recorder.size(); i++) {
+                JSONObject myflightpath = new JSONObject();
+                if (withDroneId) {
+                    myflightpath.put("droneId", droneId);
+                }
+                myflightpath.put("orderNo", recorder.orderNo(i));
+                myflightpath.put("fromLongitude", recorder.lng(i));
+                myflightpath.put("fromLatitude", recorder.lat(i));
+                myflightpath.put("angle", recorder.angle(i));
+                myflightpath.put("toLongitude", recorder.lng(i + 1));
+                myflightpath.put("toLatitude", recorder.lat(i + 1));
+                myflightpath.put("ticksSinceStartOfCalculation", recorder.tick(i) - start);
+                flightpathArray.add(myflightpath);
+            }
+        }
+        return flightpathArray.toJSONString();
+    }
+
+    private static String geoJson(List<FlightRecorder> recorders) {
+        List<Feature> features = new ArrayList<>();
+        for (int droneId = 0; droneId < recorders.size(); droneId++) {
+            Feature feature = Feature.fromGeometry(
+                    LineString.fromLngLats(new ArrayList<>(recorders.get(droneId).getPoints())));
+            if (recorders.size() > 1) {
+                feature.addNumberProperty("droneId", droneId);
+            }
+            features.add(feature);
+        }
+        return FeatureCollection.fromFeatures(features).toJson();
+    }
+}